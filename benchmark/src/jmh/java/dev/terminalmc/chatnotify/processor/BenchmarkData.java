@@ -0,0 +1,145 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.ChatNotify;
+import dev.terminalmc.chatnotify.config.Config;
+import dev.terminalmc.chatnotify.config.Notification;
+import dev.terminalmc.chatnotify.config.Trigger;
+import net.minecraft.ChatFormatting;
+import net.minecraft.SharedConstants;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.server.Bootstrap;
+
+import java.util.Random;
+
+/**
+ * Synthetic configs and messages shared by all benchmarks.
+ */
+final class BenchmarkData {
+    static final String PROFILE_NAME = "Steve";
+    static final String DISPLAY_NAME = "SteveTheBuilder";
+    static final int DEEP_SIBLINGS = 32;
+
+    private static final String[] WORDS = {
+            "diamond", "creeper", "portal", "village", "trade", "raid", "beacon",
+            "elytra", "shulker", "netherite", "market", "auction", "guild", "spawn",
+            "warp", "party", "event", "lottery", "vote", "crate",
+    };
+    private static final String[] KEYS = {
+            "multiplayer.player.joined", "multiplayer.player.left", "death.",
+            "chat.type.advancement", "commands.message.display.incoming",
+    };
+    private static final String[] REGEXES = {
+            "\\bsells? (\\d+) diamonds?\\b", "(?i)\\[(guild|party)] (\\w+):",
+            "^<(\\w+)> .*lottery", "won (\\d+) coins",
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Initializes the game registries, required for resolving translations.
+     */
+    static void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    /**
+     * Creates a config with the specified number of notifications, including
+     * the username notification. Sounds and response messages are disabled,
+     * as they require a running client.
+     *
+     * <p>Every tenth notification uses a key trigger and every 25th uses a
+     * regex trigger, the rest use one or two normal triggers, some with an
+     * exclusion trigger.</p>
+     */
+    static Config config(int notifCount) {
+        Random random = new Random(42);
+        Config config = new Config();
+        config.allowRegex = true;
+        config.setProfileName(PROFILE_NAME);
+        config.setDisplayName(DISPLAY_NAME);
+        config.getUserNotif().sound.setEnabled(false);
+
+        for (int i = 1; i < notifCount; i++) {
+            config.addNotif();
+            Notification notif = config.getNotifs().get(i);
+            notif.sound.setEnabled(false);
+            Trigger trigger = notif.triggers.getFirst();
+            if (i % 10 == 0) {
+                trigger.string = KEYS[random.nextInt(KEYS.length)];
+                trigger.isKey = true;
+            } else if (i % 25 == 1) {
+                trigger.string = REGEXES[random.nextInt(REGEXES.length)];
+                trigger.isRegex = true;
+            } else {
+                trigger.string = word(random) + " " + i;
+                if (i % 3 == 0) notif.triggers.add(new Trigger(word(random) + i));
+                if (i % 7 == 0) {
+                    notif.exclusionEnabled = true;
+                    notif.exclusionTriggers.add(new Trigger("[Discord]"));
+                }
+            }
+        }
+        return config;
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    /**
+     * Replaces the stored sent messages with the specified number of messages
+     * that will not be found in any benchmark message, so that the owner
+     * check always scans all of them.
+     *
+     * <p>Stored messages expire, so this must be called before each
+     * iteration.</p>
+     */
+    static void storeSentMessages(int count) {
+        ChatNotify.recentMessages.clear();
+        for (int i = 0; i < count; i++) {
+            ChatNotify.recentMessages.add("sent message number " + i);
+        }
+    }
+
+    /**
+     * @param type one of {@code plain}, {@code translatable}, {@code deep} or
+     *             {@code legacy}.
+     * @return a synthetic message of the specified type, which mentions the
+     * user's name.
+     */
+    static Component message(String type) {
+        return switch(type) {
+            case "plain" -> Component.literal("<Alex> has anyone seen " + PROFILE_NAME
+                    + " near the nether portal? I have 12 diamonds to trade");
+            case "translatable" -> Component.translatable("chat.type.text",
+                    Component.literal("Alex").withStyle(ChatFormatting.AQUA),
+                    Component.literal("has anyone seen " + PROFILE_NAME
+                            + " near the nether portal?"));
+            case "deep" -> {
+                MutableComponent root = Component.empty();
+                MutableComponent parent = root;
+                for (int i = 0; i < DEEP_SIBLINGS; i++) {
+                    MutableComponent child = Component.literal(i == DEEP_SIBLINGS / 2
+                            ? " " + PROFILE_NAME + " " : " part" + i)
+                            .withStyle(ChatFormatting.values()[i % 16]);
+                    parent.append(Component.literal("[" + i + "]"));
+                    parent.append(child);
+                    parent = child;
+                }
+                yield root;
+            }
+            case "legacy" -> Component.literal("§6[Guild] §bAlex§r: §7has "
+                    + "anyone seen §l" + PROFILE_NAME + "§r§7 near the "
+                    + "§cnether portal§7?");
+            default -> throw new IllegalArgumentException("Unknown message type: " + type);
+        };
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.config.Config;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the in-memory parts of config saving and loading, and the
+ * compilation of matching rules that follows each.
+ *
+ * <p>File access is excluded, as it depends mostly on the disk.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    public int notifCount;
+
+    private Config config;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkData.bootstrap();
+        config = BenchmarkData.config(notifCount);
+        config.cleanup();
+        json = Config.GSON.toJson(config);
+    }
+
+    @Benchmark
+    public String save() {
+        config.cleanup();
+        return Config.GSON.toJson(config);
+    }
+
+    @Benchmark
+    public Config load() {
+        return Config.GSON.fromJson(json, Config.class);
+    }
+
+    @Benchmark
+    public CompiledConfig compile() {
+        return CompiledConfig.of(config);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.ChatNotify;
+import dev.terminalmc.chatnotify.config.Config;
+import net.minecraft.network.chat.Component;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the full message processing pipeline, and the owner check on its
+ * own, for each message type and config size.
+ *
+ * <p>Each config is searched both sequentially and in parallel, to find the
+ * number of notifications at which parallel matching becomes worthwhile, for
+ * {@link dev.terminalmc.chatnotify.config.Config#parallelThreshold}. Select
+ * the comparison with {@code -PjmhIncludes=MessagePipelineBenchmark.processMessage}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessagePipelineBenchmark {
+    @Param({"1", "10", "100", "250", "500", "1000"})
+    public int notifCount;
+
+    @Param({"plain", "translatable", "deep", "legacy"})
+    public String messageType;
+
+    @Param({"0", "10"})
+    public int sentMessages;
+
+    @Param({"sequential", "parallel"})
+    public String search;
+
+    private CompiledConfig rules;
+    private UsernameMatcher users;
+    private Component msg;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkData.bootstrap();
+        Config config = BenchmarkData.config(notifCount);
+        // A threshold of 1 searches every config in parallel
+        config.parallelThreshold = search.equals("parallel") ? 1 : 0;
+        rules = CompiledConfig.of(config);
+        users = UsernameMatcher.of(rules);
+        msg = BenchmarkData.message(messageType);
+    }
+
+    @Setup(Level.Iteration)
+    public void storeSentMessages() {
+        BenchmarkData.storeSentMessages(sentMessages);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ChatNotify.recentMessages.clear();
+    }
+
+    @Benchmark
+    public Component processMessage() {
+        return MessageProcessor.processMessage(rules, msg);
+    }
+
+    @Benchmark
+    public MessageView checkOwner() {
+        return MessageProcessor.checkOwner(rules, users, MessageView.of(msg));
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.config.TextStyle;
+import net.minecraft.network.chat.Component;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks restyling of the matched part of each message type, and the
+ * format code scan used for legacy-formatted text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestyleBenchmark {
+    @Param({"plain", "translatable", "deep", "legacy"})
+    public String messageType;
+
+    private Component msg;
+    private String msgStr;
+    private Pattern pattern;
+    private TextStyle style;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkData.bootstrap();
+        msg = BenchmarkData.message(messageType);
+        msgStr = msg.getString();
+        pattern = MessageProcessor.stylePattern(BenchmarkData.PROFILE_NAME);
+        style = new TextStyle();
+    }
+
+    @Benchmark
+    public Component restyle() {
+        return SpanRestyler.restyle(msg, pattern, style);
+    }
+
+    @Benchmark
+    public String formatState() {
+        return FormatState.of(msgStr).codesAt(msgStr.length());
+    }
+}
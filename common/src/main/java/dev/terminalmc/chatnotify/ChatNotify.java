@@ -5,17 +5,18 @@
 
 package dev.terminalmc.chatnotify;
 
-import com.mojang.datafixers.util.Pair;
 import dev.terminalmc.chatnotify.config.Config;
-import dev.terminalmc.chatnotify.config.ResponseMessage;
+import dev.terminalmc.chatnotify.processor.MessageProcessor;
+import dev.terminalmc.chatnotify.processor.ResponseLimiter;
 import dev.terminalmc.chatnotify.util.ModLogger;
+import dev.terminalmc.chatnotify.util.SentMessageBuffer;
+import dev.terminalmc.chatnotify.util.TickScheduler;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.screens.ChatScreen;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.network.chat.Component;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class ChatNotify {
@@ -27,9 +28,15 @@ public class ChatNotify {
             .append(Component.literal(MOD_NAME).withStyle(ChatFormatting.GOLD))
             .append(Component.literal("] ").withStyle(ChatFormatting.DARK_GRAY))
             .withStyle(ChatFormatting.GRAY);
+    public static final int RECENT_MESSAGE_CAPACITY = 64;
+    public static final long RECENT_MESSAGE_TTL_NANOS = 5000000000L;
+    public static final int RESPONSE_SCHEDULER_SLOTS = 256;
 
-    public static final List<Pair<Long, String>> recentMessages = new ArrayList<>();
-    public static final List<ResponseMessage> responseMessages = new ArrayList<>();
+    public static final SentMessageBuffer recentMessages = new SentMessageBuffer(
+            RECENT_MESSAGE_CAPACITY, RECENT_MESSAGE_TTL_NANOS);
+    public static final TickScheduler<ResponseLimiter.Job> responseMessages =
+            new TickScheduler<>(RESPONSE_SCHEDULER_SLOTS);
+    public static final ResponseLimiter responseLimiter = new ResponseLimiter();
 
     public static boolean hasChatHistoryMod;
 
@@ -40,6 +47,7 @@ public class ChatNotify {
 
     public static void onConfigSaved(Config config) {
         // Cache update method
+        MessageProcessor.updateRules(config);
     }
 
     public static void onEndTick(Minecraft mc) {
@@ -47,14 +55,8 @@ public class ChatNotify {
     }
 
     private static void tickResponseMessages(Minecraft mc) {
-        List<String> sending = new ArrayList<>();
-        for (ResponseMessage resMsg : responseMessages) {
-            resMsg.countdown--;
-            if (resMsg.countdown <= 0 && resMsg.sendingString != null) {
-                sending.add(resMsg.sendingString);
-            }
-        }
-        responseMessages.removeIf((resMsg) -> resMsg.countdown <= 0);
+        List<String> sending = responseLimiter.advance(
+                responseMessages.advance(), Config.get());
         if (mc.getConnection() != null && mc.getConnection().isAcceptingMessages()) {
             if (!sending.isEmpty()) {
                 Screen oldScreen = mc.screen;
@@ -69,6 +71,7 @@ public class ChatNotify {
         }
         else {
             responseMessages.clear();
+            responseLimiter.clear();
         }
     }
 
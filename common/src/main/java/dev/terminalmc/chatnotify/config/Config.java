@@ -7,6 +7,7 @@ package dev.terminalmc.chatnotify.config;
 
 import com.google.gson.*;
 import dev.terminalmc.chatnotify.ChatNotify;
+import dev.terminalmc.chatnotify.util.PrefixTrie;
 import net.minecraft.sounds.SoundSource;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -44,7 +45,7 @@ import java.util.*;
  */
 public class Config {
     public final int version = 2;
-    private static final Path DIR_PATH = Path.of("config");
+    public static final Path DIR_PATH = Path.of("config");
     private static final String FILE_NAME = ChatNotify.MOD_ID + ".json";
     public static final Gson GSON = new GsonBuilder()
             .registerTypeAdapter(Config.class, new Config.Deserializer())
@@ -68,15 +69,61 @@ public class Config {
     public static final Sound DEFAULT_SOUND = new Sound();
     public static final SoundSource DEFAULT_SOUND_SOURCE = SoundSource.PLAYERS;
     public static final List<String> DEFAULT_PREFIXES = List.of("/shout", "!");
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 0;
+    public static final List<Integer> PARALLEL_THRESHOLDS = List.of(0, 100, 250, 500, 1000);
+    public static final int DEFAULT_REGEX_TIMEOUT = 25;
+    public static final List<Integer> REGEX_TIMEOUTS = List.of(0, 10, 25, 50, 100, 250);
+    public static final int DEFAULT_RESPONSE_INTERVAL = 20;
+    public static final List<Integer> RESPONSE_INTERVALS = List.of(0, 10, 20, 40, 60);
+    public static final int DEFAULT_RESPONSE_BURST = 10;
+    public static final List<Integer> RESPONSE_BURSTS = List.of(3, 5, 10, 20, 50);
 
     public TriState mixinEarly;
     public TriState debugShowKey;
     public boolean checkOwnMessages;
     public SoundSource soundSource;
     public boolean allowRegex;
+    /**
+     * The minimum number of notifications for which notifications are
+     * checked in parallel, or 0 to always check sequentially.
+     */
+    public int parallelThreshold;
+    /**
+     * The maximum time in milliseconds for a single regex search, or 0 for no
+     * limit.
+     */
+    public int regexTimeout;
+    /**
+     * Whether to record evaluation statistics for triggers and notifications.
+     */
+    public boolean collectStats;
+    /**
+     * Whether a message may activate every notification with a matching
+     * trigger, rather than only the first.
+     */
+    public boolean multiMatch;
+    /**
+     * Whether to record a trace of the processing of recent messages.
+     */
+    public boolean recordTrace;
+    /**
+     * The number of ticks in which one response message may be sent once the
+     * burst is used, or 0 for no limit.
+     */
+    public int responseInterval;
+    /**
+     * The number of response messages that may be sent without delay.
+     */
+    public int responseBurst;
+    /**
+     * Whether a response message identical to a message that is already
+     * waiting for the rate limit is discarded.
+     */
+    public boolean coalesceResponses;
     public int defaultColor;
     public Sound defaultSound;
     public final List<String> prefixes;
+    private transient @Nullable PrefixTrie prefixTrie;
     private final List<Notification> notifications;
 
     /**
@@ -89,6 +136,14 @@ public class Config {
         this.checkOwnMessages = true;
         this.soundSource = DEFAULT_SOUND_SOURCE;
         this.allowRegex = false;
+        this.parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        this.regexTimeout = DEFAULT_REGEX_TIMEOUT;
+        this.collectStats = false;
+        this.multiMatch = false;
+        this.recordTrace = false;
+        this.responseInterval = DEFAULT_RESPONSE_INTERVAL;
+        this.responseBurst = DEFAULT_RESPONSE_BURST;
+        this.coalesceResponses = false;
         this.defaultColor = DEFAULT_COLOR;
         this.defaultSound = DEFAULT_SOUND;
         this.prefixes = new ArrayList<>(DEFAULT_PREFIXES);
@@ -100,13 +155,23 @@ public class Config {
      * Not validated, only for use by self-validating deserializer.
      */
     Config(TriState mixinEarly, TriState debugShowKey, boolean checkOwnMessages,
-           SoundSource soundSource, boolean allowRegex, int defaultColor, Sound defaultSound,
+           SoundSource soundSource, boolean allowRegex, int parallelThreshold, int regexTimeout,
+           boolean collectStats, boolean multiMatch, boolean recordTrace, int responseInterval,
+           int responseBurst, boolean coalesceResponses, int defaultColor, Sound defaultSound,
            List<String> prefixes, List<Notification> notifications) {
         this.mixinEarly = mixinEarly;
         this.debugShowKey = debugShowKey;
         this.checkOwnMessages = checkOwnMessages;
         this.soundSource = soundSource;
         this.allowRegex = allowRegex;
+        this.parallelThreshold = parallelThreshold;
+        this.regexTimeout = regexTimeout;
+        this.collectStats = collectStats;
+        this.multiMatch = multiMatch;
+        this.recordTrace = recordTrace;
+        this.responseInterval = responseInterval;
+        this.responseBurst = responseBurst;
+        this.coalesceResponses = coalesceResponses;
         this.defaultColor = defaultColor;
         this.defaultSound = defaultSound;
         this.prefixes = prefixes;
@@ -119,12 +184,22 @@ public class Config {
         return notifications.getFirst();
     }
 
+    /**
+     * Sets the profile name trigger of the username notification, if it has
+     * changed.
+     */
     public void setProfileName(String name) {
-       getUserNotif().triggers.getFirst().string = name;
+        Trigger trigger = getUserNotif().triggers.getFirst();
+        if (!trigger.string.equals(name)) trigger.string = name;
     }
 
+    /**
+     * Sets the display name trigger of the username notification, if it has
+     * changed.
+     */
     public void setDisplayName(String name) {
-        getUserNotif().triggers.get(1).string = name;
+        Trigger trigger = getUserNotif().triggers.get(1);
+        if (!trigger.string.equals(name)) trigger.string = name;
     }
 
     // Notifications
@@ -173,10 +248,19 @@ public class Config {
         }
     }
 
+    /**
+     * @return a {@link PrefixTrie} of the prefixes, as of the last cleanup.
+     */
+    public PrefixTrie getPrefixTrie() {
+        if (prefixTrie == null) prefixTrie = new PrefixTrie(prefixes);
+        return prefixTrie;
+    }
+
     public void cleanup() {
         // Remove blank prefixes and sort by decreasing length
         prefixes.removeIf(String::isBlank);
         prefixes.sort(Comparator.comparingInt(String::length).reversed());
+        prefixTrie = new PrefixTrie(prefixes);
 
         Notification notif;
         Iterator<Notification> iterNotifs = notifications.iterator();
@@ -211,12 +295,14 @@ public class Config {
     public static Config get() {
         if (instance == null) {
             instance = Config.load();
+            ChatNotify.onConfigSaved(instance);
         }
         return instance;
     }
 
     public static Config getAndSave() {
-        get();
+        // Loaded without notifying, as saving compiles the matching rules
+        if (instance == null) instance = Config.load();
         save();
         return instance;
     }
@@ -299,6 +385,26 @@ public class Config {
             boolean checkOwnMessages = obj.get("checkOwnMessages").getAsBoolean();
             SoundSource soundSource = SoundSource.valueOf(obj.get("soundSource").getAsString());
             boolean allowRegex = obj.get("allowRegex").getAsBoolean();
+            int parallelThreshold = obj.has("parallelThreshold")
+                    ? obj.get("parallelThreshold").getAsInt()
+                    : DEFAULT_PARALLEL_THRESHOLD;
+            int regexTimeout = obj.has("regexTimeout")
+                    ? obj.get("regexTimeout").getAsInt()
+                    : DEFAULT_REGEX_TIMEOUT;
+            boolean collectStats = obj.has("collectStats")
+                    && obj.get("collectStats").getAsBoolean();
+            boolean multiMatch = obj.has("multiMatch")
+                    && obj.get("multiMatch").getAsBoolean();
+            boolean recordTrace = obj.has("recordTrace")
+                    && obj.get("recordTrace").getAsBoolean();
+            int responseInterval = obj.has("responseInterval")
+                    ? obj.get("responseInterval").getAsInt()
+                    : DEFAULT_RESPONSE_INTERVAL;
+            int responseBurst = obj.has("responseBurst")
+                    ? obj.get("responseBurst").getAsInt()
+                    : DEFAULT_RESPONSE_BURST;
+            boolean coalesceResponses = obj.has("coalesceResponses")
+                    && obj.get("coalesceResponses").getAsBoolean();
             int defaultColor = obj.get("defaultColor").getAsInt();
             Sound defaultSound = ctx.deserialize(obj.get("defaultSound"), Sound.class);
             List<String> prefixes = new ArrayList<>();
@@ -316,6 +422,10 @@ public class Config {
             if (debugShowKey == null) throw new JsonParseException("Config #2");
             if (defaultColor < 0 || defaultColor > 16777215) throw new JsonParseException("Config #4");
             if (defaultSound == null) throw new JsonParseException("Config #3");
+            if (parallelThreshold < 0) throw new JsonParseException("Config #5");
+            if (regexTimeout < 0) throw new JsonParseException("Config #6");
+            if (responseInterval < 0) throw new JsonParseException("Config #7");
+            if (responseBurst < 1) throw new JsonParseException("Config #8");
 
             if (notifications.isEmpty()) {
                 notifications.add(Notification.createUser());
@@ -324,7 +434,9 @@ public class Config {
             }
 
             return new Config(mixinEarly, debugShowKey, checkOwnMessages, soundSource,
-                    allowRegex, defaultColor, defaultSound, prefixes, notifications);
+                    allowRegex, parallelThreshold, regexTimeout, collectStats, multiMatch,
+                    recordTrace, responseInterval, responseBurst, coalesceResponses,
+                    defaultColor, defaultSound, prefixes, notifications);
         }
     }
 }
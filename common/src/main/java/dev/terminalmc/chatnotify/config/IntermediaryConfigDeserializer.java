@@ -71,6 +71,10 @@ public class IntermediaryConfigDeserializer implements JsonDeserializer<Config>
         }
 
         return new Config(mixinEarly, debugShowKey, checkOwnMessages, soundSource,
-                allowRegex, defaultColor, defaultSound, prefixes, notifications);
+                allowRegex, Config.DEFAULT_PARALLEL_THRESHOLD,
+                Config.DEFAULT_REGEX_TIMEOUT, false, false, false,
+                Config.DEFAULT_RESPONSE_INTERVAL, Config.DEFAULT_RESPONSE_BURST, false,
+                defaultColor, defaultSound,
+                prefixes, notifications);
     }
 }
@@ -7,6 +7,7 @@ package dev.terminalmc.chatnotify.config;
 
 import com.google.gson.*;
 import dev.terminalmc.chatnotify.ChatNotify;
+import dev.terminalmc.chatnotify.processor.MatchStats;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Type;
@@ -22,6 +23,8 @@ public class Notification {
 
     // Flags the notification as being actively edited.
     public transient boolean editing = false;
+    // Evaluation statistics, only recorded if enabled.
+    public final transient MatchStats stats = new MatchStats();
 
     // Options
     private boolean enabled;
@@ -14,9 +14,6 @@ import java.lang.reflect.Type;
 public class ResponseMessage {
     public final int version = 1;
 
-    public transient int countdown;
-    public transient String sendingString;
-
     public boolean enabled;
     public String string;
     public boolean regexGroups;
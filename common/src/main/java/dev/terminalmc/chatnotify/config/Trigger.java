@@ -7,6 +7,7 @@ package dev.terminalmc.chatnotify.config;
 
 import com.google.gson.*;
 import dev.terminalmc.chatnotify.ChatNotify;
+import dev.terminalmc.chatnotify.processor.MatchStats;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Type;
@@ -19,6 +20,20 @@ public class Trigger {
     public @Nullable String styleString;
     public boolean isKey;
     public boolean isRegex;
+    /**
+     * The number of times evaluation of this trigger as regex has exceeded
+     * the time limit. Not saved.
+     */
+    public transient int regexTimeouts = 0;
+    /**
+     * Whether this trigger has been disabled due to repeated timeouts. Not
+     * saved.
+     */
+    public transient volatile boolean quarantined = false;
+    /**
+     * Evaluation statistics, only recorded if enabled. Not saved.
+     */
+    public final transient MatchStats stats = new MatchStats();
 
     /**
      * Creates a default instance.
@@ -53,6 +68,17 @@ public class Trigger {
         this.isRegex = isRegex;
     }
 
+    /**
+     * Clears the regex timeout record of the trigger, allowing it to be
+     * evaluated again.
+     */
+    public void resetQuarantine() {
+        synchronized (this) {
+            regexTimeouts = 0;
+            quarantined = false;
+        }
+    }
+
     public static class Deserializer implements JsonDeserializer<Trigger> {
         @Override
         public @Nullable Trigger deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext ctx)
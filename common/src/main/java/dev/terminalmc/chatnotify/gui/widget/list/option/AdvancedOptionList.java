@@ -45,9 +45,15 @@ public class AdvancedOptionList extends OptionList {
         addEntry(new Entry.ExclusionToggleEntry(entryX, entryWidth, entryHeight, notif, this));
 
         if (notif.exclusionEnabled) {
+            boolean showStats = Config.get().collectStats;
             for (int i = 0; i < this.notif.exclusionTriggers.size(); i ++) {
+                Trigger trigger = notif.exclusionTriggers.get(i);
                 addEntry(new Entry.ExclusionFieldEntry(dynEntryX, dynEntryWidth, entryHeight,
-                        this, notif, notif.exclusionTriggers.get(i), i));
+                        this, notif, trigger, i));
+                if (showStats) {
+                    addEntry(new OptionList.Entry.TextEntry(dynEntryX, dynEntryWidth, entryHeight,
+                            NotifOptionList.statsMessage(trigger.stats), null, -1));
+                }
             }
             addEntry(new OptionList.Entry.ActionButtonEntry(entryX, entryWidth, entryHeight,
                     Component.literal("+"), null, -1,
@@ -166,22 +172,26 @@ public class AdvancedOptionList extends OptionList {
     }
 
     private void dropDraggedExclusion(OptionList.Entry hoveredEntry) {
-        int targetSlot = children().indexOf(hoveredEntry);
-        int offset = exclusionListOffset();
+        int hoveredSlot = children().indexOf(hoveredEntry);
         // Check whether the drop location is valid
-        if (hoveredEntry instanceof Entry.ExclusionFieldEntry || targetSlot == offset - 1) {
-            int hoveredSlot = children().indexOf(hoveredEntry);
-            // Check whether the move operation would actually change anything
-            if (targetSlot > dragSourceSlot || targetSlot < dragSourceSlot - 1) {
-                // Account for the list not starting at slot 0
-                int sourceIndex = dragSourceSlot - offset;
-                int destIndex = hoveredSlot - offset;
-                // I can't really explain why
-                if (sourceIndex > destIndex) destIndex += 1;
-                // Move
-                notif.moveExclusionTrigger(sourceIndex, destIndex);
-                reload();
-            }
+        if (hoveredEntry instanceof Entry.ExclusionFieldEntry || hoveredSlot == exclusionListOffset() - 1) {
+            // pass
+        } else if (hoveredEntry instanceof OptionList.Entry.TextEntry && hoveredSlot > 0
+                && children().get(hoveredSlot - 1) instanceof Entry.ExclusionFieldEntry) {
+            hoveredSlot -= 1; // Reference the 'parent' Entry of the statistics
+        } else {
+            return;
+        }
+        // Check whether the move operation would actually change anything
+        if (hoveredSlot > dragSourceSlot || hoveredSlot < dragSourceSlot - 1) {
+            // Account for the list not starting at slot 0
+            int sourceIndex = dragSourceSlot - exclusionOffset(dragSourceSlot);
+            int destIndex = hoveredSlot - exclusionOffset(hoveredSlot);
+            // I can't really explain why
+            if (sourceIndex > destIndex) destIndex += 1;
+            // Move
+            notif.moveExclusionTrigger(sourceIndex, destIndex);
+            reload();
         }
     }
 
@@ -221,6 +231,20 @@ public class AdvancedOptionList extends OptionList {
         throw new IllegalStateException("Exclusion list not found");
     }
 
+    /**
+     * @return The number of non-{@link Entry.ExclusionFieldEntry} entries in
+     * the {@link OptionList} before (and including) the specified index.
+     */
+    private int exclusionOffset(int index) {
+        int i = 0;
+        int offset = 0;
+        for (OptionList.Entry entry : children()) {
+            if (!(entry instanceof Entry.ExclusionFieldEntry)) offset++;
+            if (i++ == index) return offset;
+        }
+        throw new IllegalStateException("Exclusion index out of range");
+    }
+
     /**
      * @return The index of the first {@link Entry.ResponseFieldEntry} in the
      * {@link OptionList}.
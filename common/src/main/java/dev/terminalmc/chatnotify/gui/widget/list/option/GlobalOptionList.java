@@ -11,6 +11,8 @@ import dev.terminalmc.chatnotify.config.TriState;
 import dev.terminalmc.chatnotify.gui.screen.OptionsScreen;
 import dev.terminalmc.chatnotify.gui.widget.HsvColorPicker;
 import dev.terminalmc.chatnotify.gui.widget.field.TextField;
+import dev.terminalmc.chatnotify.processor.MatchStats;
+import dev.terminalmc.chatnotify.processor.MessageProcessor;
 import dev.terminalmc.chatnotify.util.MiscUtil;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
@@ -25,6 +27,8 @@ import net.minecraft.sounds.SoundSource;
 import net.minecraft.util.FastColor;
 
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Locale;
 
 import static dev.terminalmc.chatnotify.util.Localization.localized;
@@ -39,6 +43,12 @@ public class GlobalOptionList extends OptionList {
 
         addEntry(new Entry.MixinAndKeyDebugEntry(entryX, entryWidth, entryHeight));
         addEntry(new Entry.SelfCheckAndRegexEntry(entryX, entryWidth, entryHeight));
+        addEntry(new Entry.ParallelAndTimeoutEntry(entryX, entryWidth, entryHeight));
+        addEntry(new Entry.StatsEntry(entryX, entryWidth, entryHeight, this));
+        addEntry(new Entry.TraceEntry(entryX, entryWidth, entryHeight, this));
+        addEntry(new Entry.MultiMatchEntry(entryX, entryWidth, entryHeight));
+        addEntry(new Entry.ResponseLimitEntry(entryX, entryWidth, entryHeight));
+        addEntry(new Entry.ResponseCoalesceEntry(entryX, entryWidth, entryHeight));
         addEntry(new Entry.DefaultColorEntry(entryX, entryWidth, entryHeight, this));
         addEntry(new Entry.DefaultSoundEntry(entryX, entryWidth, entryHeight, this));
         addEntry(new Entry.SoundSourceEntry(entryX, entryWidth, entryHeight, this));
@@ -137,6 +147,177 @@ public class GlobalOptionList extends OptionList {
             }
         }
 
+        private static class ParallelAndTimeoutEntry extends MainOptionList.Entry {
+            ParallelAndTimeoutEntry(int x, int width, int height) {
+                super();
+                int buttonWidth = (width - SPACING) / 2;
+
+                elements.add(CycleButton.<Integer>builder((threshold) -> threshold == 0
+                                ? CommonComponents.OPTION_OFF.copy().withStyle(ChatFormatting.RED)
+                                : localized("option", "global.parallel.threshold", threshold)
+                                        .withStyle(ChatFormatting.GREEN))
+                        .withValues(Config.PARALLEL_THRESHOLDS)
+                        .withInitialValue(Config.get().parallelThreshold)
+                        .withTooltip((status) -> Tooltip.create(
+                                localized("option", "global.parallel.tooltip")))
+                        .create(x, 0, buttonWidth, height, localized("option", "global.parallel"),
+                                (button, status) -> Config.get().parallelThreshold = status));
+
+                elements.add(CycleButton.<Integer>builder((timeout) -> timeout == 0
+                                ? CommonComponents.OPTION_OFF.copy().withStyle(ChatFormatting.RED)
+                                : localized("option", "global.regex_timeout.millis", timeout)
+                                        .withStyle(ChatFormatting.GREEN))
+                        .withValues(Config.REGEX_TIMEOUTS)
+                        .withInitialValue(Config.get().regexTimeout)
+                        .withTooltip((status) -> Tooltip.create(
+                                localized("option", "global.regex_timeout.tooltip")))
+                        .create(x + width - buttonWidth, 0, buttonWidth, height,
+                                localized("option", "global.regex_timeout"),
+                                (button, status) -> Config.get().regexTimeout = status));
+            }
+        }
+
+        private static class StatsEntry extends MainOptionList.Entry {
+            StatsEntry(int x, int width, int height, GlobalOptionList list) {
+                super();
+                int buttonWidth = (width - SPACING) / 2;
+
+                elements.add(CycleButton.booleanBuilder(
+                        CommonComponents.OPTION_ON.copy().withStyle(ChatFormatting.GREEN),
+                                CommonComponents.OPTION_OFF.copy().withStyle(ChatFormatting.RED))
+                        .withInitialValue(Config.get().collectStats)
+                        .withTooltip((status) -> Tooltip.create(
+                                localized("option", "global.stats.tooltip")))
+                        .create(x, 0, buttonWidth, height, localized("option", "global.stats"),
+                                (button, status) -> Config.get().collectStats = status));
+
+                elements.add(Button.builder(localized("option", "global.stats.export"),
+                                (button) -> {
+                                    try {
+                                        Path file = MatchStats.dumpCsv(Config.get());
+                                        button.setMessage(localized("option", "global.stats.export.done"));
+                                        button.setTooltip(Tooltip.create(
+                                                Component.literal(file.toString())));
+                                    } catch (IOException e) {
+                                        ChatNotify.LOG.error("Unable to export statistics.", e);
+                                        button.setMessage(localized("option", "global.stats.export.error")
+                                                .withStyle(ChatFormatting.RED));
+                                    }
+                                })
+                        .tooltip(Tooltip.create(localized("option", "global.stats.export.tooltip")))
+                        .pos(x + width - buttonWidth, 0)
+                        .size(buttonWidth - list.smallWidgetWidth - SPACING, height)
+                        .build());
+
+                elements.add(Button.builder(Component.literal("\u27F2"),
+                                (button) -> MatchStats.resetAll(Config.get()))
+                        .tooltip(Tooltip.create(localized("option", "global.stats.reset")))
+                        .pos(x + width - list.smallWidgetWidth, 0)
+                        .size(list.smallWidgetWidth, height)
+                        .build());
+            }
+        }
+
+        private static class TraceEntry extends MainOptionList.Entry {
+            TraceEntry(int x, int width, int height, GlobalOptionList list) {
+                super();
+                int buttonWidth = (width - SPACING) / 2;
+
+                elements.add(CycleButton.booleanBuilder(
+                        CommonComponents.OPTION_ON.copy().withStyle(ChatFormatting.GREEN),
+                                CommonComponents.OPTION_OFF.copy().withStyle(ChatFormatting.RED))
+                        .withInitialValue(Config.get().recordTrace)
+                        .withTooltip((status) -> Tooltip.create(
+                                localized("option", "global.trace.tooltip")))
+                        .create(x, 0, buttonWidth, height, localized("option", "global.trace"),
+                                (button, status) -> Config.get().recordTrace = status));
+
+                elements.add(Button.builder(localized("option", "global.trace.export"),
+                                (button) -> {
+                                    try {
+                                        Path file = MessageProcessor.traceRecorder.dumpJsonLines();
+                                        button.setMessage(localized("option", "global.trace.export.done"));
+                                        button.setTooltip(Tooltip.create(
+                                                Component.literal(file.toString())));
+                                    } catch (IOException e) {
+                                        ChatNotify.LOG.error("Unable to export trace.", e);
+                                        button.setMessage(localized("option", "global.trace.export.error")
+                                                .withStyle(ChatFormatting.RED));
+                                    }
+                                })
+                        .tooltip(Tooltip.create(localized("option", "global.trace.export.tooltip")))
+                        .pos(x + width - buttonWidth, 0)
+                        .size(buttonWidth - list.smallWidgetWidth - SPACING, height)
+                        .build());
+
+                elements.add(Button.builder(Component.literal("\u27F2"),
+                                (button) -> MessageProcessor.traceRecorder.clear())
+                        .tooltip(Tooltip.create(localized("option", "global.trace.reset")))
+                        .pos(x + width - list.smallWidgetWidth, 0)
+                        .size(list.smallWidgetWidth, height)
+                        .build());
+            }
+        }
+
+        private static class MultiMatchEntry extends MainOptionList.Entry {
+            MultiMatchEntry(int x, int width, int height) {
+                super();
+
+                elements.add(CycleButton.booleanBuilder(
+                        CommonComponents.OPTION_ON.copy().withStyle(ChatFormatting.GREEN),
+                                CommonComponents.OPTION_OFF.copy().withStyle(ChatFormatting.RED))
+                        .withInitialValue(Config.get().multiMatch)
+                        .withTooltip((status) -> Tooltip.create(
+                                localized("option", "global.multi_match.tooltip")))
+                        .create(x, 0, width, height, localized("option", "global.multi_match"),
+                                (button, status) -> Config.get().multiMatch = status));
+            }
+        }
+
+        private static class ResponseLimitEntry extends MainOptionList.Entry {
+            ResponseLimitEntry(int x, int width, int height) {
+                super();
+                int buttonWidth = (width - SPACING) / 2;
+
+                elements.add(CycleButton.<Integer>builder((interval) -> interval == 0
+                                ? CommonComponents.OPTION_OFF.copy().withStyle(ChatFormatting.RED)
+                                : localized("option", "global.response_interval.ticks", interval)
+                                        .withStyle(ChatFormatting.GREEN))
+                        .withValues(Config.RESPONSE_INTERVALS)
+                        .withInitialValue(Config.get().responseInterval)
+                        .withTooltip((status) -> Tooltip.create(
+                                localized("option", "global.response_interval.tooltip")))
+                        .create(x, 0, buttonWidth, height,
+                                localized("option", "global.response_interval"),
+                                (button, status) -> Config.get().responseInterval = status));
+
+                elements.add(CycleButton.<Integer>builder((burst) ->
+                                localized("option", "global.response_burst.count", burst))
+                        .withValues(Config.RESPONSE_BURSTS)
+                        .withInitialValue(Config.get().responseBurst)
+                        .withTooltip((status) -> Tooltip.create(
+                                localized("option", "global.response_burst.tooltip")))
+                        .create(x + width - buttonWidth, 0, buttonWidth, height,
+                                localized("option", "global.response_burst"),
+                                (button, status) -> Config.get().responseBurst = status));
+            }
+        }
+
+        private static class ResponseCoalesceEntry extends MainOptionList.Entry {
+            ResponseCoalesceEntry(int x, int width, int height) {
+                super();
+
+                elements.add(CycleButton.booleanBuilder(
+                        CommonComponents.OPTION_ON.copy().withStyle(ChatFormatting.GREEN),
+                                CommonComponents.OPTION_OFF.copy().withStyle(ChatFormatting.RED))
+                        .withInitialValue(Config.get().coalesceResponses)
+                        .withTooltip((status) -> Tooltip.create(
+                                localized("option", "global.response_coalesce.tooltip")))
+                        .create(x, 0, width, height, localized("option", "global.response_coalesce"),
+                                (button, status) -> Config.get().coalesceResponses = status));
+            }
+        }
+
         private static class DefaultColorEntry extends MainOptionList.Entry {
             DefaultColorEntry(int x, int width, int height, GlobalOptionList list) {
                 super();
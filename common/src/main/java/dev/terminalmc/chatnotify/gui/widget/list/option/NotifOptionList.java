@@ -15,6 +15,7 @@ import dev.terminalmc.chatnotify.gui.widget.field.FakeTextField;
 import dev.terminalmc.chatnotify.gui.widget.HsvColorPicker;
 import dev.terminalmc.chatnotify.gui.widget.field.DropdownTextField;
 import dev.terminalmc.chatnotify.gui.widget.field.TextField;
+import dev.terminalmc.chatnotify.processor.MatchStats;
 import dev.terminalmc.chatnotify.util.MiscUtil;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
@@ -31,6 +32,7 @@ import org.jetbrains.annotations.NotNull;
 import java.awt.*;
 import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 
 import static dev.terminalmc.chatnotify.util.Localization.localized;
 
@@ -92,6 +94,11 @@ public class NotifOptionList extends OptionList {
         addEntry(new OptionList.Entry.TextEntry(entryX, entryWidth, entryHeight,
                 localized("option", "notif.triggers", "\u2139"),
                 Tooltip.create(localized("option", "notif.triggers.tooltip")), -1));
+        boolean showStats = Config.get().collectStats;
+        if (showStats) {
+            addEntry(new OptionList.Entry.TextEntry(entryX, entryWidth, entryHeight,
+                    statsMessage(notif.stats), null, -1));
+        }
 
         boolean isUser = notif.equals(Config.get().getNotifs().getFirst());
         for (int i = 0; i < notif.triggers.size(); i++) {
@@ -107,6 +114,10 @@ public class NotifOptionList extends OptionList {
                             this, trigger));
                 }
             }
+            if (showStats) {
+                addEntry(new OptionList.Entry.TextEntry(dynEntryX, dynEntryWidth, entryHeight,
+                        statsMessage(trigger.stats), null, -1));
+            }
         }
         addEntry(new OptionList.Entry.ActionButtonEntry(entryX, entryWidth, entryHeight,
                 Component.literal("+"), null, -1,
@@ -144,6 +155,16 @@ public class NotifOptionList extends OptionList {
         notif.autoDisable();
     }
 
+    /**
+     * @return a summary of the specified statistics, for display.
+     */
+    static Component statsMessage(MatchStats stats) {
+        return localized("option", "notif.stats", stats.evaluations(), stats.hits(),
+                String.format(Locale.ROOT, "%.1f", stats.meanNanos() / 1000D),
+                String.format(Locale.ROOT, "%.1f", stats.maxNanos() / 1000D))
+                .withStyle(ChatFormatting.GRAY);
+    }
+
     private void openSoundConfig() {
         minecraft.setScreen(new OptionsScreen(minecraft.screen, localized("option", "sound"),
                 new SoundOptionList(minecraft, width, height, getY(), itemHeight,
@@ -193,6 +214,13 @@ public class NotifOptionList extends OptionList {
             // pass
         } else if (hoveredEntry instanceof Entry.StyleStringFieldEntry) {
             hoveredSlot -= 1; // Reference the 'parent' Entry
+        } else if (hoveredEntry instanceof OptionList.Entry.TextEntry && hoveredSlot > 0
+                && children().get(hoveredSlot - 1) instanceof Entry.TriggerFieldEntry) {
+            hoveredSlot -= 1; // Reference the 'parent' Entry of the statistics
+        } else if (hoveredEntry instanceof OptionList.Entry.TextEntry && hoveredSlot > 1
+                && children().get(hoveredSlot - 1) instanceof Entry.StyleStringFieldEntry
+                && children().get(hoveredSlot - 2) instanceof Entry.TriggerFieldEntry) {
+            hoveredSlot -= 2; // Reference the 'parent' Entry of the statistics
         } else {
             this.dragSourceSlot = -1;
             return;
@@ -305,6 +333,7 @@ public class NotifOptionList extends OptionList {
                             .create(movingX, 0, list.tinyWidgetWidth, height,
                                     Component.empty(), (button, status) -> {
                                         trigger.isRegex = status;
+                                        trigger.resetQuarantine();
                                         if (status) triggerField.regexValidator();
                                         else triggerField.defaultValidator();
                                         list.reload();
@@ -344,10 +373,19 @@ public class NotifOptionList extends OptionList {
                 triggerField.setPosition(movingX, 0);
                 if (trigger.isRegex) triggerField.regexValidator();
                 triggerField.setMaxLength(240);
-                triggerField.setResponder((str) -> trigger.string = str.strip());
+                triggerField.setResponder((str) -> {
+                    if (!trigger.string.equals(str.strip())) trigger.resetQuarantine();
+                    trigger.string = str.strip();
+                });
                 triggerField.setValue(trigger.string);
-                triggerField.setTooltip(Tooltip.create(
-                        localized("option", "notif.trigger.field.tooltip")));
+                if (trigger.quarantined) {
+                    triggerField.setTooltip(Tooltip.create(localized("option",
+                            "notif.trigger.field.tooltip.quarantined", trigger.regexTimeouts)
+                            .withStyle(ChatFormatting.GOLD)));
+                } else {
+                    triggerField.setTooltip(Tooltip.create(
+                            localized("option", "notif.trigger.field.tooltip")));
+                }
                 triggerField.setTooltipDelay(Duration.ofMillis(500));
                 elements.add(triggerField);
                 movingX = x + width - list.tinyWidgetWidth;
@@ -51,7 +51,8 @@ public class MixinChatComponent {
         if (ChatNotify.mixinEarly()) {
             return message;
         } else {
-            return MessageProcessor.processMessage(message);
+            return MessageProcessor.processMessage(message,
+                    MessageProcessor.takePendingChatInfo());
         }
     }
 }
@@ -5,14 +5,19 @@
 
 package dev.terminalmc.chatnotify.mixin;
 
+import com.llamalad7.mixinextras.sugar.Local;
 import dev.terminalmc.chatnotify.ChatNotify;
 import dev.terminalmc.chatnotify.processor.MessageProcessor;
+import dev.terminalmc.chatnotify.processor.PlayerChatInfo;
 import net.minecraft.client.multiplayer.chat.ChatListener;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.PlayerChatMessage;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.ModifyVariable;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 /**
  * Refer to {@link MixinChatComponent} for an overview of Minecraft's message
@@ -39,16 +44,35 @@ public class MixinChatListener {
         return chatNotify$replaceMessage(message);
     }
 
-    // Unable to use handlePlayerChatMessage as that takes a PlayerChatMessage.
+    /*
+     * showMessageToPlayer is used rather than handlePlayerChatMessage, as it
+     * takes both the decorated message and the sender metadata, after any
+     * chat delay.
+     */
     @ModifyVariable(
             method = "showMessageToPlayer",
             at = @At("HEAD"),
             argsOnly = true
     )
-    private Component replaceMessageToPlayer(Component message) {
-        return chatNotify$replaceMessage(message);
+    private Component replaceMessageToPlayer(Component message,
+                                             @Local(argsOnly = true) PlayerChatMessage chatMessage) {
+        PlayerChatInfo chatInfo = PlayerChatInfo.of(chatMessage);
+        if (ChatNotify.mixinEarly()) {
+            return MessageProcessor.processMessage(message, chatInfo);
+        } else {
+            // Processed by MixinChatComponent
+            MessageProcessor.setPendingChatInfo(chatInfo);
+            return message;
+        }
     }
 
+    @Inject(
+            method = "showMessageToPlayer",
+            at = @At("RETURN")
+    )
+    private void clearPendingChatInfo(CallbackInfoReturnable<Boolean> cir) {
+        MessageProcessor.setPendingChatInfo(null);
+    }
 
     @Unique
     private static Component chatNotify$replaceMessage(Component message) {
@@ -5,7 +5,6 @@
 
 package dev.terminalmc.chatnotify.mixin;
 
-import com.mojang.datafixers.util.Pair;
 import dev.terminalmc.chatnotify.config.Config;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientPacketListener;
@@ -34,26 +33,25 @@ import java.util.Locale;
  * or can be converted to server-sent messages, so it is not possible to
  * reliably determine the sender using message data.
  *
- * It is possible to make use of message sender data where it exists, as an
- * example refer to https://github.com/dzwdz/chat_heads. However, as ChatNotify
- * only needs to determine whether a message is sent by the user (not the more
- * general 'who sent this message?'), an alternate heuristic approach is used:
+ * Where sender data exists (player chat messages), the message is attributed
+ * by comparing the signed sender UUID with the user's, refer to
+ * MixinChatListener. For all other messages, a heuristic approach is used:
  *
  * 1. Mixins are used to store outgoing message and command strings in a list.
  * 2. If an incoming message string contains a string in the list, and the
  *    part of the string preceding the match contains a trigger string of the
  *    username notification, the message is identified as sent by the user,
  *    and the matched string removed from the list.
- * 3. When any outgoing message or command is recorded, all list entries older
- *    than 5 seconds are removed, as it can be assumed that those generated no
- *    matching return message.
+ * 3. List entries older than 5 seconds are removed, as it can be assumed that
+ *    those generated no matching return message. The list is also limited in
+ *    size, discarding the oldest entries first.
  *
  * Note that some outgoing messages may have modifier prefixes such as ! or
  * /shout that cause them to behave differently (e.g. go to global rather than
  * party chat on a server), but will not appear in the return message.
  * Thus, before a message is stored, it is checked against the ChatNotify list
- * of prefixes (which can be edited by the user), and the first matching prefix
- * (if any) is cut from the message.
+ * of prefixes (which can be edited by the user), and the longest matching
+ * prefix (if any) is cut from the message.
  */
 
 @Mixin(value = ClientPacketListener.class, priority = 792)
@@ -111,45 +109,30 @@ public class MixinClientPacketListener {
 
     @Unique
     private void chatNotify$storeMessage(String message) {
-        long time = System.nanoTime();
-        chatNotify$removeOldMessages(time);
-
         message = message.toLowerCase(Locale.ROOT);
         String plainMsg = "";
 
         // If message starts with a prefix, remove the prefix.
-        for (String prefix : Config.get().prefixes) {
-            if (message.startsWith(prefix)) {
-                plainMsg = message.replaceFirst(prefix, "").strip();
-                break;
-            }
+        int prefixLength = Config.get().getPrefixTrie().longestPrefix(message);
+        if (prefixLength > 0) {
+            plainMsg = message.substring(prefixLength).strip();
         }
-        ChatNotify.recentMessages.add(Pair.of(time + 5000000000L, plainMsg.isEmpty() ? message : plainMsg));
+        ChatNotify.recentMessages.add(plainMsg.isEmpty() ? message : plainMsg);
     }
 
     @Unique
     private void chatNotify$storeCommand(String command) {
-        long time = System.currentTimeMillis();
-        chatNotify$removeOldMessages(time);
-
         // The command '/' is removed before this point, so add it back before
         // checking against prefixes.
         command = '/' + command.toLowerCase(Locale.ROOT);
 
         // If command starts with a prefix, cut the prefix and store the command
-        for (String prefix : Config.get().prefixes) {
-            if (command.startsWith(prefix)) {
-                command = command.replaceFirst(prefix, "").strip();
-                if (!command.isEmpty()) {
-                    ChatNotify.recentMessages.add(Pair.of(time + 5000000000L, command));
-                }
-                break;
+        int prefixLength = Config.get().getPrefixTrie().longestPrefix(command);
+        if (prefixLength > 0) {
+            command = command.substring(prefixLength).strip();
+            if (!command.isEmpty()) {
+                ChatNotify.recentMessages.add(command);
             }
         }
     }
-
-    @Unique
-    private void chatNotify$removeOldMessages(long time) { // no see
-        ChatNotify.recentMessages.removeIf(pair -> pair.getFirst() < time);
-    }
 }
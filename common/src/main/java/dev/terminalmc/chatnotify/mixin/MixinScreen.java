@@ -0,0 +1,40 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.mixin;
+
+import dev.terminalmc.chatnotify.processor.DebugInfoTable;
+import dev.terminalmc.chatnotify.processor.MessageProcessor;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.network.chat.ClickEvent;
+import net.minecraft.network.chat.Style;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Resolves the compact click events of raw debug info, rendering the raw dump
+ * of the message only when it is clicked.
+ */
+@Mixin(Screen.class)
+public class MixinScreen {
+    @Inject(
+            method = "handleComponentClicked",
+            at = @At("HEAD"),
+            cancellable = true
+    )
+    private void copyDebugInfo(@Nullable Style style, CallbackInfoReturnable<Boolean> cir) {
+        if (style == null) return;
+        ClickEvent event = style.getClickEvent();
+        if (DebugInfoTable.isDebugEvent(event)) {
+            String dump = MessageProcessor.debugInfo.render(event);
+            if (dump != null) Minecraft.getInstance().keyboardHandler.setClipboard(dump);
+            cir.setReturnValue(true);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton for finding all occurrences of a set of literal
+ * strings in a single pass over the searched text.
+ *
+ * <p>Case-insensitive automatons compare characters using {@link #fold},
+ * which is the same per-character folding used by {@link java.util.regex}
+ * with the {@code (?iu)} flags, so match offsets are always offsets into the
+ * original text.</p>
+ *
+ * <p>Instances are immutable and may be shared between threads.</p>
+ */
+public final class AhoCorasick {
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final boolean ignoreCase;
+    // Per-state transitions, with keys sorted for binary search
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;
+    // Per-state ids of all patterns ending at the state, including those
+    // reachable by following fail links
+    private final int[][] outputs;
+    private final int[] lengths;
+
+    /**
+     * Builds an automaton for the specified patterns. The id of each pattern
+     * is its index in the list. Empty patterns are never matched.
+     * @param patterns the strings to search for.
+     * @param ignoreCase whether to ignore case when matching.
+     */
+    public AhoCorasick(List<String> patterns, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        this.lengths = new int[patterns.size()];
+
+        // Build the trie
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> ownOutputs = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ownOutputs.add(new ArrayList<>());
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            lengths[id] = pattern.length();
+            if (pattern.isEmpty()) continue;
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = normalize(pattern.charAt(i));
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    ownOutputs.add(new ArrayList<>());
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            ownOutputs.get(state).add(id);
+        }
+
+        int size = trie.size();
+        this.keys = new char[size][];
+        this.targets = new int[size][];
+        for (int s = 0; s < size; s++) {
+            TreeMap<Character, Integer> transitions = trie.get(s);
+            keys[s] = new char[transitions.size()];
+            targets[s] = new int[transitions.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> e : transitions.entrySet()) {
+                keys[s][i] = e.getKey();
+                targets[s][i] = e.getValue();
+                i++;
+            }
+        }
+
+        // Compute fail links and merge outputs, breadth-first
+        this.fail = new int[size];
+        this.outputs = new int[size][];
+        outputs[0] = NO_OUTPUT;
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.remove();
+            outputs[s] = merge(ownOutputs.get(s), outputs[fail[s]]);
+            for (int i = 0; i < keys[s].length; i++) {
+                char c = keys[s][i];
+                int child = targets[s][i];
+                int f = fail[s];
+                int next = transition(f, c);
+                while (next == -1 && f != 0) {
+                    f = fail[f];
+                    next = transition(f, c);
+                }
+                fail[child] = next == -1 ? 0 : next;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static int[] merge(List<Integer> own, int[] inherited) {
+        if (own.isEmpty()) return inherited;
+        int[] merged = Arrays.copyOf(inherited, inherited.length + own.size());
+        for (int i = 0; i < own.size(); i++) {
+            merged[inherited.length + i] = own.get(i);
+        }
+        return merged;
+    }
+
+    /**
+     * @return the target state, or -1 if the state has no transition for the
+     * character.
+     */
+    private int transition(int state, char c) {
+        int i = Arrays.binarySearch(keys[state], c);
+        return i < 0 ? -1 : targets[state][i];
+    }
+
+    private char normalize(char c) {
+        return ignoreCase ? fold(c) : c;
+    }
+
+    /**
+     * Case-folds a single character, without changing the length of the
+     * string it belongs to.
+     */
+    public static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * @return the number of patterns the automaton was built from.
+     */
+    public int size() {
+        return lengths.length;
+    }
+
+    /**
+     * @return the length of the pattern with the specified id.
+     */
+    public int length(int id) {
+        return lengths[id];
+    }
+
+    /**
+     * Scans the text once, reporting every occurrence of every pattern,
+     * including overlapping occurrences.
+     * @param text the text to search.
+     * @param consumer the consumer to receive each occurrence, in order of
+     * end index.
+     */
+    public void search(CharSequence text, MatchConsumer consumer) {
+        if (keys[0].length == 0) return;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = normalize(text.charAt(i));
+            int next = transition(state, c);
+            while (next == -1 && state != 0) {
+                state = fail[state];
+                next = transition(state, c);
+            }
+            state = next == -1 ? 0 : next;
+            for (int id : outputs[state]) {
+                consumer.accept(id, i + 1 - lengths[id], i + 1);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface MatchConsumer {
+        /**
+         * @param id the id of the matched pattern.
+         * @param start the index of the first character of the occurrence.
+         * @param end the index after the last character of the occurrence.
+         */
+        void accept(int id, int start, int end);
+    }
+}
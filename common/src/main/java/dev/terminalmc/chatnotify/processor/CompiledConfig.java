@@ -0,0 +1,323 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.config.Config;
+import dev.terminalmc.chatnotify.config.Notification;
+import dev.terminalmc.chatnotify.config.Trigger;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable snapshot of the matching rules of a {@link Config}, with every
+ * {@link Pattern} compiled ahead of time.
+ *
+ * <p>The snapshot is rebuilt when the config is saved or loaded, so that
+ * message processing never needs to compile anything. Mutable notification
+ * state (enabled, editing) is still read from the referenced
+ * {@link Notification} at match time.</p>
+ *
+ * <p>Edits made in the options screens change the {@link Config} directly,
+ * but are not included in the snapshot until the config is saved, when the
+ * options screens are closed. Until then, messages are matched using the
+ * rules as they were last saved.</p>
+ */
+public final class CompiledConfig {
+    public final Config config;
+    public final boolean allowRegex;
+    public final boolean checkOwnMessages;
+    public final int parallelThreshold;
+    /**
+     * The time limit for a single regex search, or 0 for no limit.
+     */
+    public final long regexBudgetNanos;
+    /**
+     * Whether to record {@link MatchStats}.
+     */
+    public final boolean collectStats;
+    public final boolean multiMatch;
+    /**
+     * Whether to record a {@link TraceRecorder.Trace} of each message.
+     */
+    public final boolean recordTrace;
+    public final List<CompiledNotif> notifs;
+    /**
+     * Single-pass matcher for all {@link CompiledTrigger.Type#NORMAL} triggers
+     * of all notifications, indexed by {@link CompiledTrigger#plainIndex}.
+     */
+    public final PlainTriggerMatcher plainMatcher;
+    /**
+     * Combined prefilter for all {@link CompiledTrigger.Type#REGEX} triggers
+     * of all notifications, indexed by {@link CompiledTrigger#regexIndex}.
+     */
+    public final RegexSet regexSet;
+    /**
+     * Memoizing index of all {@link CompiledTrigger.Type#KEY} triggers of all
+     * notifications, indexed by {@link CompiledTrigger#keyIndex}.
+     */
+    public final KeyIndex keyIndex;
+    /**
+     * The distinct exclusion triggers of all notifications, indexed by
+     * {@link CompiledTrigger#exclusionIndex}.
+     */
+    public final ExclusionSet exclusionSet;
+
+    private CompiledConfig(Config config) {
+        this.config = config;
+        this.allowRegex = config.allowRegex;
+        this.checkOwnMessages = config.checkOwnMessages;
+        this.parallelThreshold = config.parallelThreshold;
+        this.regexBudgetNanos = config.regexTimeout * 1000000L;
+        this.collectStats = config.collectStats;
+        this.multiMatch = config.multiMatch;
+        this.recordTrace = config.recordTrace;
+
+        List<CompiledNotif> notifs = new ArrayList<>();
+        Indexes indexes = new Indexes();
+        for (Notification notif : config.getNotifs()) {
+            // The name triggers are compiled by the UsernameMatcher
+            notifs.add(new CompiledNotif(notif, allowRegex, indexes,
+                    notifs.isEmpty() ? UsernameMatcher.NAME_TRIGGERS : 0));
+        }
+        this.notifs = List.copyOf(notifs);
+        this.plainMatcher = new PlainTriggerMatcher(indexes.plainStrings);
+        this.regexSet = new RegexSet(indexes.regexPatterns);
+        this.keyIndex = new KeyIndex(indexes.keyStrings);
+        this.exclusionSet = new ExclusionSet(indexes.exclusions, indexes.exclusionOwners,
+                regexBudgetNanos, collectStats);
+    }
+
+    /**
+     * Compiles all matching rules of the specified {@link Config}.
+     */
+    public static CompiledConfig of(Config config) {
+        return new CompiledConfig(config);
+    }
+
+    /**
+     * The name triggers of the username notification are not included in the
+     * snapshot, so changes to them do not require recompilation. Refer to
+     * {@link UsernameMatcher}.
+     * @return {@code true} if the snapshot was compiled from the specified
+     * config.
+     */
+    public boolean isCurrent(Config config) {
+        return this.config == config;
+    }
+
+    /**
+     * Accumulates the triggers to be included in the shared matchers.
+     */
+    private static final class Indexes {
+        final List<String> plainStrings = new ArrayList<>();
+        final List<Pattern> regexPatterns = new ArrayList<>();
+        final List<String> keyStrings = new ArrayList<>();
+        final List<CompiledTrigger> exclusions = new ArrayList<>();
+        final List<List<Trigger>> exclusionOwners = new ArrayList<>();
+        final Map<String, Integer> exclusionIds = new HashMap<>();
+    }
+
+    /**
+     * Compiled form of a {@link Notification}.
+     */
+    public static final class CompiledNotif {
+        public final Notification notif;
+        /**
+         * The triggers, excluding the name triggers of the username
+         * notification.
+         */
+        public final List<CompiledTrigger> triggers;
+        /**
+         * The exclusion triggers, whose evaluation may be shared with other
+         * notifications.
+         */
+        public final List<CompiledTrigger> exclusionTriggers;
+
+        private CompiledNotif(Notification notif, boolean allowRegex, Indexes indexes,
+                              int skipTriggers) {
+            this.notif = notif;
+            this.triggers = compileTriggers(
+                    notif.triggers.subList(skipTriggers, notif.triggers.size()),
+                    allowRegex, indexes);
+            this.exclusionTriggers = compileExclusions(notif.exclusionTriggers, allowRegex,
+                    indexes);
+        }
+
+        private static List<CompiledTrigger> compileTriggers(List<Trigger> triggers,
+                                                             boolean allowRegex, Indexes indexes) {
+            List<CompiledTrigger> compiled = new ArrayList<>();
+            for (Trigger trigger : triggers) {
+                if (!trigger.string.isBlank()) { // Guard
+                    CompiledTrigger ct = new CompiledTrigger(trigger, allowRegex,
+                            indexes.plainStrings.size(), indexes.regexPatterns.size(),
+                            indexes.keyStrings.size(), -1, -1);
+                    if (ct.plainIndex != -1) indexes.plainStrings.add(ct.string);
+                    if (ct.regexIndex != -1) indexes.regexPatterns.add(ct.pattern);
+                    if (ct.keyIndex != -1) indexes.keyStrings.add(ct.string);
+                    compiled.add(ct);
+                }
+            }
+            return List.copyOf(compiled);
+        }
+
+        /**
+         * Exclusion triggers are deduplicated by type and string, so that
+         * each distinct exclusion is only evaluated once per message. Each
+         * {@link Trigger} still has its own {@link CompiledTrigger}, sharing
+         * the {@link CompiledTrigger#exclusionIndex} of the first, and is
+         * recorded as an owner of the shared exclusion.
+         */
+        private static List<CompiledTrigger> compileExclusions(List<Trigger> triggers,
+                                                               boolean allowRegex,
+                                                               Indexes indexes) {
+            List<CompiledTrigger> compiled = new ArrayList<>();
+            for (Trigger trigger : triggers) {
+                if (!trigger.string.isBlank()) { // Guard
+                    CompiledTrigger ct = new CompiledTrigger(trigger, allowRegex,
+                            -1, -1, indexes.keyStrings.size(), indexes.exclusions.size(), -1);
+                    String id = ct.type + ":" + (ct.type == CompiledTrigger.Type.NORMAL
+                            ? ct.literal : ct.string);
+                    Integer existing = indexes.exclusionIds.get(id);
+                    if (existing != null) {
+                        ct = indexes.exclusions.get(existing).withOwner(trigger);
+                        indexes.exclusionOwners.get(existing).add(trigger);
+                    } else {
+                        if (ct.keyIndex != -1) indexes.keyStrings.add(ct.string);
+                        indexes.exclusionIds.put(id, indexes.exclusions.size());
+                        indexes.exclusions.add(ct);
+                        indexes.exclusionOwners.add(new ArrayList<>(List.of(trigger)));
+                    }
+                    compiled.add(ct);
+                }
+            }
+            return List.copyOf(compiled);
+        }
+    }
+
+    /**
+     * Compiled form of a {@link Trigger}.
+     */
+    public static final class CompiledTrigger {
+        public enum Type {
+            NORMAL,
+            KEY,
+            REGEX
+        }
+
+        public final Trigger trigger;
+        public final Type type;
+        public final String string;
+        /**
+         * The trigger string converted to lowercase.
+         */
+        public final String literal;
+        /**
+         * The search pattern of the trigger. For {@link Type#NORMAL} triggers
+         * this is the word-bounded search pattern, for {@link Type#REGEX}
+         * triggers it is the user's pattern, or {@code null} if that could not
+         * be compiled. Always {@code null} for {@link Type#KEY} triggers.
+         */
+        public final @Nullable Pattern pattern;
+        /**
+         * Style search pattern for the style string, if any.
+         */
+        public final @Nullable Pattern stylePattern;
+        /**
+         * Style search pattern for the trigger string, only for
+         * {@link Type#NORMAL} triggers.
+         */
+        public final @Nullable Pattern stringStylePattern;
+        /**
+         * The index of the trigger in the {@link PlainTriggerMatcher}, or -1 if
+         * the trigger is not matched by it.
+         */
+        public final int plainIndex;
+        /**
+         * The index of the trigger in the {@link RegexSet}, or -1 if the
+         * trigger is not evaluated by it.
+         */
+        public final int regexIndex;
+        /**
+         * The index of the trigger in the {@link KeyIndex}, or -1 if the
+         * trigger is not evaluated by it.
+         */
+        public final int keyIndex;
+        /**
+         * The index of the trigger in the {@link ExclusionSet}, or -1 if the
+         * trigger is not an exclusion trigger.
+         */
+        public final int exclusionIndex;
+        /**
+         * The index of the trigger in the {@link UsernameMatcher}, or -1 if
+         * the trigger is not a name trigger.
+         */
+        public final int nameIndex;
+
+        private CompiledTrigger(Trigger trigger, boolean allowRegex, int plainIndex,
+                                int regexIndex, int keyIndex, int exclusionIndex,
+                                int nameIndex) {
+            this.trigger = trigger;
+            this.type = trigger.isKey
+                    ? Type.KEY
+                    : (allowRegex && trigger.isRegex) ? Type.REGEX : Type.NORMAL;
+            this.string = trigger.string;
+            this.literal = trigger.string.toLowerCase(Locale.ROOT);
+            this.pattern = switch(type) {
+                case NORMAL -> MessageProcessor.triggerPattern(string);
+                case KEY -> null;
+                case REGEX -> MessageProcessor.regexPattern(string);
+            };
+            this.stylePattern = trigger.styleString != null
+                    ? MessageProcessor.stylePattern(trigger.styleString) : null;
+            this.stringStylePattern = type == Type.NORMAL
+                    ? MessageProcessor.stylePattern(string) : null;
+            this.plainIndex = type == Type.NORMAL ? plainIndex : -1;
+            this.regexIndex = type == Type.REGEX && pattern != null ? regexIndex : -1;
+            this.keyIndex = type == Type.KEY ? keyIndex : -1;
+            this.exclusionIndex = exclusionIndex;
+            this.nameIndex = type == Type.NORMAL ? nameIndex : -1;
+        }
+
+        private CompiledTrigger(CompiledTrigger shared, Trigger trigger) {
+            this.trigger = trigger;
+            this.type = shared.type;
+            this.string = shared.string;
+            this.literal = shared.literal;
+            this.pattern = shared.pattern;
+            this.stylePattern = shared.stylePattern;
+            this.stringStylePattern = shared.stringStylePattern;
+            this.plainIndex = shared.plainIndex;
+            this.regexIndex = shared.regexIndex;
+            this.keyIndex = shared.keyIndex;
+            this.exclusionIndex = shared.exclusionIndex;
+            this.nameIndex = shared.nameIndex;
+        }
+
+        /**
+         * @return a copy of this compiled trigger for another {@link Trigger}
+         * with the same type and string, sharing its compiled patterns and
+         * indexes.
+         */
+        CompiledTrigger withOwner(Trigger trigger) {
+            return new CompiledTrigger(this, trigger);
+        }
+
+        /**
+         * Compiles a name trigger of the username notification, which is
+         * matched by the {@link UsernameMatcher} rather than the
+         * {@link PlainTriggerMatcher}.
+         */
+        static CompiledTrigger ofName(Trigger trigger, int nameIndex) {
+            return new CompiledTrigger(trigger, false, -1, -1, -1, -1, nameIndex);
+        }
+    }
+}
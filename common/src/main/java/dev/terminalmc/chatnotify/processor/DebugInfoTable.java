@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import net.minecraft.network.chat.ClickEvent;
+import net.minecraft.network.chat.Component;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded side table of the original messages that have raw debug info
+ * attached.
+ *
+ * <p>Rather than embedding the full raw dump of each message in its click
+ * event, the click event of the message holds only a compact id, and the dump
+ * is rendered from the stored original message when it is clicked. The table
+ * holds the most recent {@link #MAX_SIZE} messages, older messages can no
+ * longer be resolved.</p>
+ *
+ * <p>Not thread-safe, only for use by the client thread.</p>
+ */
+public final class DebugInfoTable {
+    public static final int MAX_SIZE = 256;
+    private static final String PREFIX = "chatnotify:debug/";
+
+    private final Map<Integer, Component> messages = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Component> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+    private int nextId = 0;
+
+    /**
+     * Stores the message.
+     * @return the click event value identifying the message.
+     */
+    public String add(Component msg) {
+        int id = nextId++;
+        messages.put(id, msg);
+        return PREFIX + id;
+    }
+
+    /**
+     * @param event the click event of a clicked part of a message.
+     * @return {@code true} if the click event was created by this table.
+     */
+    public static boolean isDebugEvent(@Nullable ClickEvent event) {
+        return event != null && event.getAction() == ClickEvent.Action.COPY_TO_CLIPBOARD
+                && event.getValue().startsWith(PREFIX);
+    }
+
+    /**
+     * @param event a click event for which {@link #isDebugEvent} is
+     * {@code true}.
+     * @return the raw dump of the identified message, or {@code null} if it
+     * is no longer stored.
+     */
+    public @Nullable String render(ClickEvent event) {
+        try {
+            Component msg = messages.get(Integer.parseInt(
+                    event.getValue().substring(PREFIX.length())));
+            return msg == null ? null : msg.toString();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
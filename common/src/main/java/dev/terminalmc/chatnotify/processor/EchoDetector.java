@@ -0,0 +1,142 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.util.SentMessageBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Finds occurrences of the messages stored in a {@link SentMessageBuffer} in
+ * a single pass over the searched text.
+ *
+ * <p>Stored messages are fingerprinted with a Rabin-Karp polynomial hash and
+ * grouped by length. The search maintains one rolling hash per distinct
+ * length, and each hash hit is confirmed by a string comparison, so results
+ * are identical to {@link String#lastIndexOf(String)} per message.</p>
+ *
+ * <p>The fingerprints are rebuilt only when the buffer has changed since the
+ * last search. Not thread-safe, only for use by the client thread.</p>
+ */
+public final class EchoDetector {
+    private static final long BASE = 0x100000001B3L;
+
+    private final SentMessageBuffer buffer;
+    private int modCount;
+    private String[] messages = new String[0];
+    private Group[] groups = new Group[0];
+
+    /**
+     * All stored messages with the same length.
+     */
+    private static final class Group {
+        final int length;
+        // BASE^(length-1), to remove the leading character from the window
+        final long leadPower;
+        // Sorted for binary search, with buffer positions in the same order
+        final long[] hashes;
+        final int[] positions;
+        long hash;
+
+        Group(int length, long[] hashes, int[] positions) {
+            this.length = length;
+            this.leadPower = power(length - 1);
+            this.hashes = hashes;
+            this.positions = positions;
+        }
+    }
+
+    public EchoDetector(SentMessageBuffer buffer) {
+        this.buffer = buffer;
+        this.modCount = buffer.modCount() - 1;
+    }
+
+    /**
+     * @param text the string to search.
+     * @return for each stored message in buffer order, the index of its last
+     * occurrence in the text, or -1 if it does not occur.
+     */
+    public int[] lastIndices(String text) {
+        if (modCount != buffer.modCount()) rebuild();
+        int[] result = new int[messages.length];
+        Arrays.fill(result, -1);
+        for (int i = 0; i < messages.length; i++) {
+            if (messages[i].isEmpty()) result[i] = text.length();
+        }
+        if (groups.length == 0) return result;
+
+        for (Group group : groups) group.hash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            for (Group group : groups) {
+                int len = group.length;
+                if (i >= len) group.hash -= text.charAt(i - len) * group.leadPower;
+                group.hash = group.hash * BASE + c;
+                if (i + 1 >= len) {
+                    int start = i + 1 - len;
+                    int j = Arrays.binarySearch(group.hashes, group.hash);
+                    if (j >= 0) {
+                        // Back up to the first of any equal hashes
+                        while (j > 0 && group.hashes[j - 1] == group.hash) j--;
+                        for (; j < group.hashes.length && group.hashes[j] == group.hash; j++) {
+                            int pos = group.positions[j];
+                            if (text.regionMatches(start, messages[pos], 0, len)) {
+                                result[pos] = start;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void rebuild() {
+        modCount = buffer.modCount();
+        messages = new String[buffer.size()];
+        // Pairs of (hash, position) by message length
+        Map<Integer, List<long[]>> byLength = new TreeMap<>();
+        for (int i = 0; i < messages.length; i++) {
+            String msg = buffer.get(i);
+            messages[i] = msg;
+            if (msg.isEmpty()) continue;
+            byLength.computeIfAbsent(msg.length(), (k) -> new ArrayList<>())
+                    .add(new long[]{hash(msg), i});
+        }
+
+        groups = new Group[byLength.size()];
+        int g = 0;
+        for (Map.Entry<Integer, List<long[]>> entry : byLength.entrySet()) {
+            List<long[]> entries = entry.getValue();
+            entries.sort((a, b) -> Long.compare(a[0], b[0]));
+            long[] hashes = new long[entries.size()];
+            int[] positions = new int[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                hashes[i] = entries.get(i)[0];
+                positions[i] = (int)entries.get(i)[1];
+            }
+            groups[g++] = new Group(entry.getKey(), hashes, positions);
+        }
+    }
+
+    private static long hash(String str) {
+        long hash = 0;
+        for (int i = 0; i < str.length(); i++) {
+            hash = hash * BASE + str.charAt(i);
+        }
+        return hash;
+    }
+
+    private static long power(int exp) {
+        long result = 1;
+        for (int i = 0; i < exp; i++) result *= BASE;
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.config.Trigger;
+import dev.terminalmc.chatnotify.processor.CompiledConfig.CompiledTrigger;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The distinct exclusion triggers of all notifications.
+ *
+ * <p>Exclusion triggers with the same type and string are shared between
+ * notifications, so that each is evaluated at most once per message, and only
+ * if some notification actually needs it. The result of the evaluation is
+ * still attributed to every {@link Trigger} that owns the exclusion, so each
+ * has its own {@link MatchStats}, and a regex exclusion that is quarantined
+ * for one notification is not applied to it, but is still applied to the
+ * other notifications.</p>
+ */
+public final class ExclusionSet {
+    private final List<CompiledTrigger> exclusions;
+    private final List<List<Trigger>> owners;
+    private final long regexBudgetNanos;
+    private final boolean collectStats;
+
+    /**
+     * @param exclusions the distinct exclusion triggers, indexed by
+     *                   {@link CompiledTrigger#exclusionIndex}.
+     * @param owners the triggers that own each distinct exclusion trigger,
+     *               with the same indexes.
+     * @param regexBudgetNanos the time limit for a single regex search, or 0
+     *                         for no limit.
+     * @param collectStats whether to record {@link MatchStats}, on every
+     *                     owner of an exclusion.
+     */
+    public ExclusionSet(List<CompiledTrigger> exclusions, List<List<Trigger>> owners,
+                        long regexBudgetNanos, boolean collectStats) {
+        this.exclusions = List.copyOf(exclusions);
+        this.owners = owners.stream().map(List::copyOf).toList();
+        this.regexBudgetNanos = regexBudgetNanos;
+        this.collectStats = collectStats;
+    }
+
+    /**
+     * @return the number of distinct exclusion triggers.
+     */
+    public int size() {
+        return exclusions.size();
+    }
+
+    /**
+     * Starts a lazy evaluation of the exclusion triggers against a message.
+     * No trigger is evaluated until it is first queried.
+     * @param msgStr the original message string.
+     * @param checkedCleanStr the owner-checked message string, without format
+     *                        codes.
+     * @param keyHits the key trigger hits of the message, from the
+     *                {@link KeyIndex}.
+     * @param trace the trace to record evaluations to, if any.
+     */
+    public Evaluation evaluate(String msgStr, String checkedCleanStr, BitSet keyHits,
+                               @Nullable TraceRecorder.Trace trace) {
+        return new Evaluation(msgStr, checkedCleanStr, keyHits, trace);
+    }
+
+    /**
+     * Per-message evaluation state, not thread-safe.
+     */
+    public final class Evaluation {
+        private final String msgStr;
+        private final String checkedCleanStr;
+        private final BitSet keyHits;
+        private final @Nullable TraceRecorder.Trace trace;
+        private final BitSet evaluated;
+        private final BitSet hits;
+
+        private Evaluation(String msgStr, String checkedCleanStr, BitSet keyHits,
+                           @Nullable TraceRecorder.Trace trace) {
+            this.msgStr = msgStr;
+            this.checkedCleanStr = checkedCleanStr;
+            this.keyHits = keyHits;
+            this.trace = trace;
+            this.evaluated = new BitSet(exclusions.size());
+            this.hits = new BitSet(exclusions.size());
+        }
+
+        /**
+         * @param triggers the exclusion triggers of a notification.
+         * @return {@code true} if any of the triggers matches the message.
+         */
+        public boolean anyMatch(List<CompiledTrigger> triggers) {
+            for (CompiledTrigger trigger : triggers) {
+                if (!trigger.trigger.quarantined && matches(trigger.exclusionIndex)) return true;
+            }
+            return false;
+        }
+
+        private boolean matches(int i) {
+            if (!evaluated.get(i)) {
+                CompiledTrigger trigger = exclusions.get(i);
+                List<Trigger> triggerOwners = owners.get(i);
+                evaluated.set(i);
+                boolean timed = collectStats || trace != null;
+                long start = timed ? System.nanoTime() : 0;
+                boolean hit = switch(trigger.type) {
+                    case KEY -> keyHits.get(trigger.keyIndex);
+                    case REGEX -> trigger.pattern != null && GuardedRegex.find(
+                            triggerOwners, trigger.pattern, msgStr, regexBudgetNanos) != null;
+                    case NORMAL -> trigger.pattern.matcher(checkedCleanStr).find();
+                };
+                if (timed) {
+                    long nanos = System.nanoTime() - start;
+                    if (collectStats) {
+                        for (Trigger owner : triggerOwners) owner.stats.record(nanos, hit);
+                    }
+                    if (trace != null) trace.exclusion(trigger.trigger, hit, nanos);
+                }
+                if (hit) hits.set(i);
+            }
+            return hits.get(i);
+        }
+    }
+}
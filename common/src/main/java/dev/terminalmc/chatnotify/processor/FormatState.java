@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import java.util.Arrays;
+
+/**
+ * The legacy format codes active at each point of a string.
+ *
+ * <p>A format state is packed into an int, with the decoration flags in the
+ * low 5 bits (in the order {@code k}, {@code l}, {@code m}, {@code n},
+ * {@code o}) and the color index plus one in the following bits, or zero if
+ * no color is active. As for rendering, a color code clears all decorations,
+ * and a reset code clears everything.</p>
+ *
+ * <p>An instance holds the state after each format code of a string, computed
+ * once, so the state active at any index is found by a binary search. The
+ * code string of each of the possible states is precomputed.</p>
+ *
+ * <p>Instances are immutable and may be shared between threads.</p>
+ */
+public final class FormatState {
+    public static final int EMPTY = 0;
+
+    private static final String COLOR_CODES = "0123456789abcdef";
+    private static final String DECORATION_CODES = "klmno";
+    private static final int COLOR_SHIFT = DECORATION_CODES.length();
+    private static final String[] CODES = new String[(COLOR_CODES.length() + 1) << COLOR_SHIFT];
+
+    static {
+        for (int state = 0; state < CODES.length; state++) {
+            StringBuilder builder = new StringBuilder();
+            int color = state >>> COLOR_SHIFT;
+            if (color != 0) builder.append('§').append(COLOR_CODES.charAt(color - 1));
+            for (int i = 0; i < DECORATION_CODES.length(); i++) {
+                if ((state & (1 << i)) != 0) builder.append('§').append(DECORATION_CODES.charAt(i));
+            }
+            CODES[state] = builder.toString();
+        }
+    }
+
+    // The index after each format code, and the state following it
+    private final int[] ends;
+    private final int[] states;
+    private final int count;
+
+    private FormatState(int[] ends, int[] states, int count) {
+        this.ends = ends;
+        this.states = states;
+        this.count = count;
+    }
+
+    /**
+     * Scans the string once for format codes.
+     * @param str the string, including any format codes.
+     */
+    public static FormatState of(String str) {
+        int max = 0;
+        for (int i = str.indexOf('§'); i != -1; i = str.indexOf('§', i + 1)) max++;
+        int[] ends = new int[max];
+        int[] states = new int[max];
+        int count = 0;
+        int state = EMPTY;
+        for (int i = str.indexOf('§'); i != -1 && i + 1 < str.length();
+             i = str.indexOf('§', i + 1)) {
+            int next = apply(state, str.charAt(i + 1));
+            if (next != -1) {
+                state = next;
+                ends[count] = i + 2;
+                states[count++] = state;
+                i++;
+            }
+        }
+        return new FormatState(ends, states, count);
+    }
+
+    /**
+     * @param state the current state.
+     * @param code the character following a section sign.
+     * @return the state after the format code, or -1 if the character is not
+     * a format code.
+     */
+    public static int apply(int state, char code) {
+        char c = Character.toLowerCase(code);
+        if (c == 'r') return EMPTY;
+        int color = COLOR_CODES.indexOf(c);
+        if (color != -1) return (color + 1) << COLOR_SHIFT;
+        int decoration = DECORATION_CODES.indexOf(c);
+        if (decoration != -1) return state | (1 << decoration);
+        return -1;
+    }
+
+    /**
+     * @return the format code string of the state, which is empty for
+     * {@link #EMPTY}.
+     */
+    public static String codes(int state) {
+        return CODES[state];
+    }
+
+    /**
+     * @param index an index into the string.
+     * @return the state of the format codes that end at or before the index.
+     */
+    public int stateAt(int index) {
+        int i = Arrays.binarySearch(ends, 0, count, index);
+        if (i < 0) i = -i - 2;
+        return i < 0 ? EMPTY : states[i];
+    }
+
+    /**
+     * @param index an index into the string.
+     * @return the format code string of the state active at the index.
+     */
+    public String codesAt(int index) {
+        return codes(stateAt(index));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.ChatNotify;
+import dev.terminalmc.chatnotify.config.Trigger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Time-bounded execution of user regex patterns.
+ *
+ * <p>Messages are processed on the client thread, so a pattern with
+ * catastrophic backtracking could otherwise freeze the game. The searched
+ * string is wrapped in a {@link CharSequence} that counts character reads and
+ * periodically checks a deadline, aborting the search when the budget is
+ * exceeded.</p>
+ *
+ * <p>Each timeout is recorded on the {@link Trigger}, and after
+ * {@link #QUARANTINE_THRESHOLD} timeouts the trigger is quarantined, and is
+ * not evaluated again until it is edited or the game is restarted.</p>
+ */
+public final class GuardedRegex {
+    /**
+     * The number of character reads between deadline checks.
+     */
+    static final int CHECK_INTERVAL = 1024;
+    public static final int QUARANTINE_THRESHOLD = 3;
+
+    private GuardedRegex() {
+    }
+
+    /**
+     * Searches for the next match of the pattern.
+     * @param trigger the trigger that owns the pattern, for recording
+     *                timeouts.
+     * @param pattern the pattern.
+     * @param str the string to search.
+     * @param budgetNanos the maximum search time, or 0 for no limit.
+     * @return the {@link Matcher} positioned at the match, or {@code null} if
+     * there was no match, the search timed out, or the trigger is quarantined.
+     */
+    public static @Nullable Matcher find(Trigger trigger, Pattern pattern, String str,
+                                         long budgetNanos) {
+        if (trigger.quarantined) return null;
+        try {
+            return search(pattern, str, budgetNanos);
+        } catch (TimeoutException e) {
+            recordTimeout(trigger, budgetNanos);
+            return null;
+        }
+    }
+
+    /**
+     * Searches for the next match of a pattern shared by several triggers.
+     * A timeout is recorded on each trigger that is not already quarantined.
+     * @param triggers the triggers that own the pattern.
+     * @param pattern the pattern.
+     * @param str the string to search.
+     * @param budgetNanos the maximum search time, or 0 for no limit.
+     * @return the {@link Matcher} positioned at the match, or {@code null} if
+     * there was no match, the search timed out, or all the triggers are
+     * quarantined.
+     */
+    public static @Nullable Matcher find(List<Trigger> triggers, Pattern pattern, String str,
+                                         long budgetNanos) {
+        boolean active = false;
+        for (Trigger trigger : triggers) {
+            if (!trigger.quarantined) {
+                active = true;
+                break;
+            }
+        }
+        if (!active) return null;
+        try {
+            return search(pattern, str, budgetNanos);
+        } catch (TimeoutException e) {
+            for (Trigger trigger : triggers) {
+                if (!trigger.quarantined) recordTimeout(trigger, budgetNanos);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @throws TimeoutException if the search exceeds the budget.
+     */
+    private static @Nullable Matcher search(Pattern pattern, String str, long budgetNanos) {
+        Matcher matcher = budgetNanos <= 0
+                ? pattern.matcher(str)
+                : pattern.matcher(new DeadlineCharSequence(str, System.nanoTime() + budgetNanos));
+        return matcher.find() ? matcher : null;
+    }
+
+    private static void recordTimeout(Trigger trigger, long budgetNanos) {
+        synchronized (trigger) {
+            trigger.regexTimeouts++;
+            ChatNotify.LOG.warn("Regex trigger '{}' exceeded time limit of {} ms ({}/{})",
+                    trigger.string, budgetNanos / 1000000, trigger.regexTimeouts,
+                    QUARANTINE_THRESHOLD);
+            if (trigger.regexTimeouts >= QUARANTINE_THRESHOLD && !trigger.quarantined) {
+                trigger.quarantined = true;
+                ChatNotify.LOG.warn("Regex trigger '{}' disabled until edited",
+                        trigger.string);
+            }
+        }
+    }
+
+    /**
+     * Thrown from within a search when the deadline has passed. Stack trace is
+     * not filled, as the exception is always caught.
+     */
+    private static final class TimeoutException extends RuntimeException {
+        TimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Wraps a string, checking the deadline every {@link #CHECK_INTERVAL}
+     * character reads.
+     */
+    private static final class DeadlineCharSequence implements CharSequence {
+        private final String str;
+        private final long deadline;
+        private int reads;
+
+        DeadlineCharSequence(String str, long deadline) {
+            this.str = str;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++reads >= CHECK_INTERVAL) {
+                reads = 0;
+                if (System.nanoTime() - deadline > 0) throw new TimeoutException();
+            }
+            return str.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return str.length();
+        }
+
+        @Override
+        public @NotNull CharSequence subSequence(int start, int end) {
+            return str.substring(start, end);
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return str;
+        }
+    }
+}
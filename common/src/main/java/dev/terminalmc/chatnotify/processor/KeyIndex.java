@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.contents.TranslatableContents;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of all key triggers, for resolving the translation key of a message
+ * to the set of key triggers that it matches.
+ *
+ * <p>A key trigger matches if the translation key contains the trigger
+ * string, or if the trigger string is {@code .} (any message). The triggers
+ * contained in a key are found in a single case-sensitive {@link AhoCorasick}
+ * pass, and the result is memoized per distinct key string, so that
+ * commonly-seen keys such as {@code multiplayer.player.joined} resolve with a
+ * single hash lookup.</p>
+ *
+ * <p>The memo is not synchronized, and must only be used by the client
+ * thread.</p>
+ */
+public final class KeyIndex {
+    /**
+     * The maximum number of distinct keys to memoize. Servers use a small set
+     * of keys, this only guards against unbounded growth.
+     */
+    public static final int MAX_MEMO_SIZE = 512;
+    public static final String ANY_KEY = ".";
+
+    private final int size;
+    private final AhoCorasick automaton;
+    // Trigger ids for each distinct key of the automaton
+    private final int[][] triggerIds;
+    // Triggers matching any message
+    private final BitSet anyHits;
+    private final Map<String, BitSet> memo = new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BitSet> eldest) {
+            return size() > MAX_MEMO_SIZE;
+        }
+    };
+
+    /**
+     * @param keys the key trigger strings. The id of each trigger is its index
+     *             in the list.
+     */
+    public KeyIndex(List<String> keys) {
+        this.size = keys.size();
+        this.anyHits = new BitSet(size);
+        Map<String, Integer> keyIds = new HashMap<>();
+        List<String> patterns = new ArrayList<>();
+        List<List<Integer>> ids = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            if (key.equals(ANY_KEY)) {
+                anyHits.set(i);
+                continue;
+            }
+            Integer keyId = keyIds.get(key);
+            if (keyId == null) {
+                keyId = patterns.size();
+                keyIds.put(key, keyId);
+                patterns.add(key);
+                ids.add(new ArrayList<>());
+            }
+            ids.get(keyId).add(i);
+        }
+        this.automaton = new AhoCorasick(patterns, false);
+        this.triggerIds = new int[ids.size()][];
+        for (int i = 0; i < ids.size(); i++) {
+            triggerIds[i] = ids.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * @return the number of key triggers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param msg the message to check.
+     * @return the set of ids of all key triggers matching the message.
+     * <b>Must not be modified</b>, as it may be shared.
+     */
+    public BitSet search(Component msg) {
+        if (size == 0 || !(msg.getContents() instanceof TranslatableContents tc)) {
+            return anyHits;
+        }
+        return search(tc.getKey());
+    }
+
+    /**
+     * @param key the translation key to check.
+     * @return the set of ids of all key triggers matching the key.
+     * <b>Must not be modified</b>, as it may be shared.
+     */
+    public BitSet search(String key) {
+        BitSet hits = memo.get(key);
+        if (hits == null) {
+            BitSet newHits = (BitSet)anyHits.clone();
+            automaton.search(key, (id, start, end) -> {
+                for (int triggerId : triggerIds[id]) {
+                    newHits.set(triggerId);
+                }
+            });
+            hits = newHits;
+            memo.put(key, hits);
+        }
+        return hits;
+    }
+}
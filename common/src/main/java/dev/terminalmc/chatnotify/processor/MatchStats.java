@@ -0,0 +1,165 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.ChatNotify;
+import dev.terminalmc.chatnotify.config.Config;
+import dev.terminalmc.chatnotify.config.Notification;
+import dev.terminalmc.chatnotify.config.Trigger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluation counters and timing statistics for a single trigger,
+ * notification or processing stage.
+ *
+ * <p>Statistics are only recorded while {@link Config#collectStats} is
+ * enabled, and are not saved. Counters use {@link LongAdder}s, so recording
+ * from parallel searches is cheap and does not require locking.</p>
+ */
+public final class MatchStats {
+    // Processing stages, not associated with any trigger
+    public static final MatchStats OWNER_CHECK = new MatchStats();
+    public static final MatchStats PLAIN_PASS = new MatchStats();
+    public static final MatchStats REGEX_PREFILTER = new MatchStats();
+    public static final MatchStats KEY_INDEX = new MatchStats();
+    public static final MatchStats NOTIF_SEARCH = new MatchStats();
+    private static final List<String> STAGE_NAMES = List.of(
+            "owner_check", "plain_pass", "regex_prefilter", "key_index", "notif_search");
+    private static final List<MatchStats> STAGES = List.of(
+            OWNER_CHECK, PLAIN_PASS, REGEX_PREFILTER, KEY_INDEX, NOTIF_SEARCH);
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a single evaluation.
+     * @param nanos the time taken by the evaluation.
+     * @param hit whether the evaluation was a hit.
+     */
+    public void record(long nanos, boolean hit) {
+        evaluations.increment();
+        if (hit) hits.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long evaluations() {
+        return evaluations.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @return the mean time per evaluation, or 0 if there have been none.
+     */
+    public long meanNanos() {
+        long count = evaluations();
+        return count == 0 ? 0 : totalNanos() / count;
+    }
+
+    public void reset() {
+        evaluations.reset();
+        hits.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * Resets the statistics of all stages, notifications and triggers of the
+     * specified config.
+     */
+    public static void resetAll(Config config) {
+        STAGES.forEach(MatchStats::reset);
+        for (Notification notif : config.getNotifs()) {
+            notif.stats.reset();
+            notif.triggers.forEach((trigger) -> trigger.stats.reset());
+            notif.exclusionTriggers.forEach((trigger) -> trigger.stats.reset());
+        }
+    }
+
+    /**
+     * Writes the statistics of all stages, notifications and triggers of the
+     * specified config to a new CSV file in the config directory.
+     * @return the path of the file.
+     */
+    public static Path dumpCsv(Config config) throws IOException {
+        Path dir = Config.DIR_PATH.resolve(ChatNotify.MOD_ID + "-stats");
+        if (!Files.isDirectory(dir)) Files.createDirectories(dir);
+        Path file = dir.resolve(LocalDateTime.now().format(
+                DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss")) + ".csv");
+
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write("scope,notification,index,type,string,evaluations,hits,"
+                    + "total_ns,mean_ns,max_ns\n");
+            for (int i = 0; i < STAGES.size(); i++) {
+                writeRow(writer, "stage", "", "", "", STAGE_NAMES.get(i), STAGES.get(i));
+            }
+            List<Notification> notifs = config.getNotifs();
+            for (int i = 0; i < notifs.size(); i++) {
+                Notification notif = notifs.get(i);
+                String notifIndex = String.valueOf(i);
+                writeRow(writer, "notification", notifIndex, "", "", "", notif.stats);
+                for (int j = 0; j < notif.triggers.size(); j++) {
+                    Trigger trigger = notif.triggers.get(j);
+                    writeRow(writer, "trigger", notifIndex, String.valueOf(j), type(trigger),
+                            trigger.string, trigger.stats);
+                }
+                for (int j = 0; j < notif.exclusionTriggers.size(); j++) {
+                    Trigger trigger = notif.exclusionTriggers.get(j);
+                    writeRow(writer, "exclusion", notifIndex, String.valueOf(j), type(trigger),
+                            trigger.string, trigger.stats);
+                }
+            }
+        }
+        return file;
+    }
+
+    static String type(Trigger trigger) {
+        return trigger.isKey ? "key" : trigger.isRegex ? "regex" : "normal";
+    }
+
+    private static void writeRow(Writer writer, String scope, String notif, String index,
+                                 String type, String string, MatchStats stats)
+            throws IOException {
+        writer.write(String.join(",", scope, notif, index, type, escape(string),
+                String.valueOf(stats.evaluations()), String.valueOf(stats.hits()),
+                String.valueOf(stats.totalNanos()), String.valueOf(stats.meanNanos()),
+                String.valueOf(stats.maxNanos())));
+        writer.write('\n');
+    }
+
+    /**
+     * Quotes a CSV field if required.
+     */
+    private static String escape(String str) {
+        if (str.indexOf(',') == -1 && str.indexOf('"') == -1
+                && str.indexOf('\n') == -1 && str.indexOf('\r') == -1) {
+            return str;
+        }
+        return '"' + str.replace("\"", "\"\"") + '"';
+    }
+}
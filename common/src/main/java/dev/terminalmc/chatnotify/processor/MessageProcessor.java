@@ -7,6 +7,8 @@ package dev.terminalmc.chatnotify.processor;
 
 import dev.terminalmc.chatnotify.ChatNotify;
 import dev.terminalmc.chatnotify.config.*;
+import dev.terminalmc.chatnotify.processor.CompiledConfig.CompiledTrigger;
+import dev.terminalmc.chatnotify.util.ComponentRewriter;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.screens.ChatScreen;
@@ -14,14 +16,14 @@ import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.client.resources.sounds.SimpleSoundInstance;
 import net.minecraft.client.resources.sounds.SoundInstance;
 import net.minecraft.network.chat.*;
-import net.minecraft.network.chat.contents.PlainTextContents;
 import net.minecraft.network.chat.contents.TranslatableContents;
-import net.minecraft.util.StringUtil;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -33,6 +35,70 @@ import static dev.terminalmc.chatnotify.util.Localization.localized;
  * Message processing algorithm, starting at processMessage.
  */
 public class MessageProcessor {
+    private static @Nullable CompiledConfig rules = null;
+    private static @Nullable UsernameMatcher users = null;
+    private static final EchoDetector echoDetector = new EchoDetector(recentMessages);
+    private static @Nullable PlayerChatInfo pendingChatInfo = null;
+    private static final StyleCache styleCache = new StyleCache(MessageProcessor::computeStyle);
+    public static final DebugInfoTable debugInfo = new DebugInfoTable();
+    public static final TraceRecorder traceRecorder = new TraceRecorder();
+    private static final HoverEvent RAW_INFO_HOVER = new HoverEvent(HoverEvent.Action.SHOW_TEXT,
+            localized("common", "click_copy.raw").withStyle(ChatFormatting.GOLD));
+
+    /**
+     * Recompiles the matching rules of the specified {@link Config}, and
+     * clears cached styles.
+     */
+    public static void updateRules(Config config) {
+        styleCache.clear();
+        CompiledConfig current = CompiledConfig.of(config);
+        users = UsernameMatcher.of(current);
+        rules = current;
+    }
+
+    /**
+     * @return the compiled matching rules of the current {@link Config},
+     * compiling them if required.
+     */
+    private static CompiledConfig rules() {
+        Config config = Config.get();
+        CompiledConfig current = rules;
+        if (current == null || !current.isCurrent(config)) {
+            current = CompiledConfig.of(config);
+            rules = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return the compiled username triggers for the specified rules,
+     * compiling them if required.
+     */
+    private static UsernameMatcher users(CompiledConfig rules) {
+        UsernameMatcher current = users;
+        if (current == null || !current.isCurrent(rules)) {
+            current = UsernameMatcher.of(rules);
+            users = current;
+        }
+        return current;
+    }
+
+    /**
+     * Sets the sender metadata of a player chat message that will be
+     * processed later in the call stack, or clears it if {@code null}.
+     */
+    public static void setPendingChatInfo(@Nullable PlayerChatInfo chatInfo) {
+        pendingChatInfo = chatInfo;
+    }
+
+    /**
+     * @return the pending sender metadata, which is cleared.
+     */
+    public static @Nullable PlayerChatInfo takePendingChatInfo() {
+        PlayerChatInfo chatInfo = pendingChatInfo;
+        pendingChatInfo = null;
+        return chatInfo;
+    }
 
     /**
      * Initiates the message processing algorithm.
@@ -41,18 +107,74 @@ public class MessageProcessor {
      * was required.
      */
     public static Component processMessage(Component msg) {
+        return processMessage(msg, null);
+    }
+
+    /**
+     * Initiates the message processing algorithm.
+     * @param msg The original message.
+     * @param chatInfo the sender metadata of the message, if it is a player
+     *                 chat message.
+     * @return A modified copy of the message, or the original if no modifying
+     * was required.
+     */
+    public static Component processMessage(Component msg, @Nullable PlayerChatInfo chatInfo) {
         switch(Config.get().debugShowKey.state) {
             case ON -> msg = addKeyInfo(msg);
             case OFF -> msg = addRawInfo(msg);
         }
+        return processMessage(rules(), msg, chatInfo,
+                Minecraft.getInstance().getUser().getProfileId());
+    }
+
+    /**
+     * Processes the message using the specified matching rules, without
+     * sender metadata.
+     */
+    @VisibleForTesting
+    static Component processMessage(CompiledConfig rules, Component msg) {
+        return processMessage(rules, msg, null, null);
+    }
 
-        String msgStr = msg.getString();
-        if (msgStr.isBlank()) return msg; // Ignore blank messages
-        String checkedMsgStr = checkOwner(msgStr); // Null if ignoring message
+    /**
+     * Processes the message using the specified matching rules.
+     * @param rules the compiled matching rules.
+     * @param msg The message, with any debug info already added.
+     * @param chatInfo the sender metadata of the message, if known.
+     * @param userId the UUID of the user.
+     * @return A modified copy of the message, or the original if no modifying
+     * was required.
+     */
+    @VisibleForTesting
+    static Component processMessage(CompiledConfig rules, Component msg,
+                                    @Nullable PlayerChatInfo chatInfo, @Nullable UUID userId) {
+        MessageView view = MessageView.of(msg);
+        if (view.raw().isBlank()) return msg; // Ignore blank messages
+        UsernameMatcher users = users(rules);
+        TraceRecorder.Trace trace = rules.recordTrace ? traceRecorder.start(msg, view.raw()) : null;
+        MessageView checkedView;
+        boolean timed = rules.collectStats || trace != null;
+        long start = timed ? System.nanoTime() : 0;
+        if (chatInfo != null) {
+            checkedView = checkSender(rules, users, view, chatInfo, userId);
+        } else {
+            checkedView = checkOwner(rules, users, view); // Null if ignoring message
+        }
+        if (timed) {
+            long nanos = System.nanoTime() - start;
+            if (rules.collectStats) MatchStats.OWNER_CHECK.record(nanos, checkedView != view);
+            if (trace != null) {
+                trace.owner(chatInfo != null ? "sender" : "echo", checkedView == null
+                        ? "ignored" : checkedView != view ? "own" : "other", nanos);
+            }
+        }
 
         Component modifiedMsg = null;
-        if (checkedMsgStr != null) {
-            modifiedMsg = tryNotify(msg.copy(), msgStr, checkedMsgStr);
+        if (checkedView != null) {
+            // Restyling copies the message, so no copy is needed here
+            modifiedMsg = tryNotify(rules, users, msg, view, checkedView, trace);
+        } else if (trace != null) {
+            trace.action("ignored", List.of());
         }
 
         return (modifiedMsg == null ? msg : modifiedMsg);
@@ -70,166 +192,272 @@ public class MessageProcessor {
      * ChatNotify is configured to ignore such messages, else the part of the
      * prefix that matched a trigger is removed to prevent it being detected by
      * trigger search.
-     * @param msgStr the message to check.
+     * @param view the message to check.
      * @return the message, modified message, or {@code null} depending on the
      * result of the check.
      */
-    private static @Nullable String checkOwner(String msgStr) {
+    @VisibleForTesting
+    static @Nullable MessageView checkOwner(CompiledConfig rules, UsernameMatcher users,
+                                            MessageView view) {
+        // Only player chat has sender metadata, so system and disguised chat
+        // messages are always checked here.
+        recentMessages.expire();
+        if (recentMessages.isEmpty()) return view;
         // Stored messages are always converted to lowercase, convert to match.
-        String msgStrLow = msgStr.toLowerCase(Locale.ROOT);
+        // All stored messages are found in a single pass.
+        int[] lastMatchIndices = echoDetector.lastIndices(view.lower());
         // Check for a matching stored message
-        for (int i = 0; i < recentMessages.size(); i++) {
-            int lastMatchIdx = msgStrLow.lastIndexOf(recentMessages.get(i).getSecond());
+        for (int i = 0; i < lastMatchIndices.length; i++) {
+            int lastMatchIdx = lastMatchIndices[i];
             if (lastMatchIdx > 0) { // First condition satisfied
                 // Check for a username trigger in the part before the match
-                String prefix = msgStr.substring(0, lastMatchIdx);
-                for (Trigger trigger : Config.get().getUserNotif().triggers) {
-                    Matcher matcher = triggerSearch(prefix, trigger.string);
-                    if (matcher.find()) { // Second condition satisfied
-                        recentMessages.remove(i);
-                        // Modify the message string
-                        if (Config.get().checkOwnMessages) {
-                            msgStr = msgStr.substring(0, matcher.start()) +
-                                    msgStr.substring(matcher.end());
-                        }
-                        else {
-                            msgStr = null;
-                        }
-                        return msgStr;
+                Matcher matcher = findUserName(users, view, view.lowerToRaw(lastMatchIdx));
+                if (matcher != null) { // Second condition satisfied
+                    recentMessages.remove(i);
+                    // Modify the message string
+                    if (rules.checkOwnMessages) {
+                        return view.withoutStripped(matcher.start(), matcher.end());
+                    }
+                    else {
+                        return null;
                     }
                 }
             }
         }
-        return msgStr;
+        return view;
+    }
+
+    /**
+     * Determines whether a player chat message was sent by the user, using
+     * its signed sender, and modifies it in the same way as
+     * {@link #checkOwner}.
+     *
+     * <p>The part of the prefix that is removed is the first username trigger
+     * match preceding the last occurrence of the message content, or the first
+     * match in the message if the content is not found.</p>
+     * @param view the message to check.
+     * @param chatInfo the sender metadata of the message.
+     * @param userId the UUID of the user.
+     * @return the message, modified message, or {@code null} depending on the
+     * result of the check.
+     */
+    @VisibleForTesting
+    static @Nullable MessageView checkSender(CompiledConfig rules, UsernameMatcher users,
+                                             MessageView view, PlayerChatInfo chatInfo,
+                                             @Nullable UUID userId) {
+        if (!chatInfo.sender().equals(userId)) return view;
+        String content = chatInfo.content().toLowerCase(Locale.ROOT);
+        // Consume the stored message, so it cannot match a later message
+        removeSentMessage(content);
+        if (!rules.checkOwnMessages) return null;
+        int contentIdx = content.isEmpty() ? -1 : view.lower().lastIndexOf(content);
+        int prefixEnd = contentIdx == -1 ? view.raw().length() : view.lowerToRaw(contentIdx);
+        Matcher matcher = findUserName(users, view, prefixEnd);
+        return matcher == null ? view : view.withoutStripped(matcher.start(), matcher.end());
+    }
+
+    /**
+     * Removes the stored message (or command) that corresponds to the content
+     * of a message sent by the user, preferring the oldest exact match. Stored
+     * messages have any prefix removed, and commands such as {@code /msg} also
+     * store their arguments, so otherwise the oldest message where either
+     * string ends with the other, starting at a word boundary, is removed.
+     * @param content the lowercase message content.
+     */
+    private static void removeSentMessage(String content) {
+        recentMessages.expire();
+        if (content.isEmpty()) return;
+        for (int i = 0; i < recentMessages.size(); i++) {
+            if (recentMessages.get(i).equals(content)) {
+                recentMessages.remove(i);
+                return;
+            }
+        }
+        for (int i = 0; i < recentMessages.size(); i++) {
+            String stored = recentMessages.get(i);
+            if (endsWithWord(stored, content) || endsWithWord(content, stored)) {
+                recentMessages.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the string ends with the suffix, and the suffix
+     * starts at a word boundary of the string.
+     */
+    private static boolean endsWithWord(String str, String suffix) {
+        if (!str.endsWith(suffix)) return false;
+        int start = str.length() - suffix.length();
+        return start == 0 || !Character.isLetterOrDigit(str.charAt(start - 1))
+                || !Character.isLetterOrDigit(suffix.charAt(0));
+    }
+
+    /**
+     * @param end the raw index at which to stop searching.
+     * @return the first match of a username trigger before the specified
+     * index, in {@link MessageView#stripped()}, or {@code null} if none.
+     */
+    private static @Nullable Matcher findUserName(UsernameMatcher users, MessageView view,
+                                                  int end) {
+        String cleanMsgStr = view.stripped();
+        int cleanEnd = view.rawToStripped(end);
+        for (Pattern pattern : users.userPatterns) {
+            Matcher matcher = pattern.matcher(cleanMsgStr).region(0, cleanEnd);
+            if (matcher.find()) return matcher;
+        }
+        return null;
     }
 
     /**
      * For each trigger of each enabled notification, checks whether the
-     * trigger matches the message.
+     * trigger matches the message. All normal triggers are found in a single
+     * pass by the {@link PlainTriggerMatcher}, the regex triggers that can
+     * possibly match are found in a single pass by the {@link RegexSet}, and
+     * the key triggers are resolved by the {@link KeyIndex}, before any
+     * notification is checked.
      *
      * <p>When a trigger matches, checks the exclusion triggers of the
-     * notification to determine whether to activate the notification.
+     * notification (if enabled) to determine whether to activate the
+     * notification. Each distinct exclusion trigger is evaluated at most once
+     * per message, by the {@link ExclusionSet}.
+     *
+     * <p>The notifications are checked by a {@link NotifSearch}, which may
+     * check them in parallel for very large configs, but always selects the
+     * highest-priority match.
      *
      * <p>If the notification should be activated, completes the relevant
      * notification actions.
      *
-     * <p><b>Note:</b> For performance and simplicity reasons, this method only
-     * allows one notification to be triggered by a given message.
+     * <p><b>Note:</b> Unless {@link CompiledConfig#multiMatch} is enabled,
+     * only one notification can be activated by a given message. Refer to
+     * {@link #notifyAll}.
      * @param msg the original message.
-     * @param msgStr the original message string.
-     * @param checkedMsgStr the owner-checked message string.
+     * @param view the original message string.
+     * @param checkedView the owner-checked message string.
+     * @param trace the trace of the message, if recording.
      * @return a re-styled copy of the message, or null if no trigger matched.
      */
-    private static Component tryNotify(Component msg, String msgStr, String checkedMsgStr) {
-        boolean allowRegex = Config.get().allowRegex;
-        for (Notification notif : Config.get().getNotifs()) {
-            if (notif.isEnabled() && !notif.editing) {
-                for (Trigger trigger : notif.triggers) {
-                    if (!trigger.string.isBlank()) { // Guard
-                        boolean hit;
-                        Matcher matcher = null;
-                        if (trigger.isKey) {
-                            hit = keySearch(msg, trigger.string);
-                        }
-                        else if (allowRegex && trigger.isRegex) {
-                            matcher = regexSearch(msgStr, trigger.string);
-                            hit = matcher != null && matcher.find();
-                        }
-                        else {
-                            hit = triggerSearch(checkedMsgStr, trigger.string).find();
-                        }
-                        if (hit) {
-                            boolean exclHit = false;
-                            for (Trigger exclTrigger : notif.exclusionTriggers) {
-                                if (exclTrigger.isKey) {
-                                    exclHit = keySearch(msg, exclTrigger.string);
-                                }
-                                else if (allowRegex && exclTrigger.isRegex) {
-                                    Matcher exclMatcher = regexSearch(msgStr, exclTrigger.string);
-                                    exclHit = exclMatcher != null && exclMatcher.find();
-                                }
-                                else {
-                                    exclHit = triggerSearch(checkedMsgStr, exclTrigger.string).find();
-                                }
-                                if (exclHit) break;
-                            }
-
-                            if (!exclHit) {
-                                playSound(notif);
-                                sendResponses(notif, matcher);
-                                String cleanMsgStr = StringUtil.stripColor(msgStr);
-                                if (trigger.isKey || (allowRegex && trigger.isRegex)) {
-                                    if (trigger.styleString != null && styleSearch(cleanMsgStr, trigger.styleString).find()) {
-                                        return complexRestyle(msg, trigger.styleString, notif.textStyle);
-                                    } else {
-                                        return simpleRestyle(msg, notif.textStyle);
-                                    }
-                                } else {
-                                    if (trigger.styleString != null && styleSearch(cleanMsgStr, trigger.styleString).find()) {
-                                        return complexRestyle(msg, trigger.styleString, notif.textStyle);
-                                    } else if (styleSearch(cleanMsgStr, trigger.string).find()) {
-                                        return complexRestyle(msg, trigger.string, notif.textStyle);
-                                    } else {
-                                        return simpleRestyle(msg, notif.textStyle);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
+    private static Component tryNotify(CompiledConfig rules, UsernameMatcher users, Component msg,
+                                       MessageView view, MessageView checkedView,
+                                       @Nullable TraceRecorder.Trace trace) {
+        NotifSearch search = new NotifSearch(rules, users, msg, view, checkedView, trace);
+        if (rules.multiMatch) {
+            List<NotifSearch.Match> matches = search.findAll();
+            if (trace != null) {
+                trace.action(matches.isEmpty() ? "none" : "notify",
+                        matches.stream().map(NotifSearch.Match::index).toList());
             }
+            return notifyAll(msg, view, matches);
+        }
+
+        NotifSearch.Match match = search.find();
+        if (trace != null) {
+            trace.action(match == null ? "none" : "notify",
+                    match == null ? List.of() : List.of(match.index()));
+        }
+        if (match == null) return null;
+
+        Notification notif = match.notif();
+        playSound(notif);
+        sendResponses(notif, match.matcher());
+        Pattern pattern = restylePattern(match.trigger(), view);
+        if (pattern != null) {
+            return complexRestyle(msg, pattern, notif.textStyle);
+        } else {
+            return simpleRestyle(msg, notif.textStyle);
         }
-        return null;
     }
 
     /**
-     * @param msg the message to search.
-     * @param key the key (or partial key) to search for.
-     * @return {@code true} if the message matches the key, {@code false}
-     * otherwise.
+     * Completes the actions of every activated notification. Only the sound
+     * of the highest-priority notification with a sound is played.
+     *
+     * <p>The matches of all notifications are highlighted in a single
+     * {@link SpanRestyler} pass, with overlaps resolved by priority. The
+     * highest-priority notification that cannot be highlighted by a pattern
+     * is applied to the whole message, as in single-match mode.</p>
+     * @param msg the original message.
+     * @param view the original message string.
+     * @param matches the matches, in order of priority.
+     * @return a re-styled copy of the message, or null if no trigger matched.
      */
-    private static boolean keySearch(Component msg, String key) {
-        boolean hit = false;
-        if (key.equals(".")) {
-            hit = true;
+    private static Component notifyAll(Component msg, MessageView view,
+                                       List<NotifSearch.Match> matches) {
+        if (matches.isEmpty()) return null;
+
+        for (NotifSearch.Match match : matches) {
+            if (match.notif().sound.isEnabled()) {
+                playSound(match.notif());
+                break;
+            }
         }
-        else if (msg.getContents() instanceof TranslatableContents tc) {
-            if (tc.getKey().contains(key)) {
-                hit = true;
+        List<SpanRestyler.Highlight> highlights = new ArrayList<>();
+        TextStyle wholeStyle = null;
+        for (NotifSearch.Match match : matches) {
+            Notification notif = match.notif();
+            sendResponses(notif, match.matcher());
+            if (!notif.textStyle.isEnabled()) continue;
+            Pattern pattern = restylePattern(match.trigger(), view);
+            if (pattern != null) {
+                highlights.add(new SpanRestyler.Highlight(pattern, notif.textStyle));
+            } else if (wholeStyle == null) {
+                wholeStyle = notif.textStyle;
             }
         }
-        return hit;
+
+        Component modifiedMsg = highlights.isEmpty() ? msg : SpanRestyler.restyle(msg, highlights);
+        return wholeStyle == null ? modifiedMsg : simpleRestyle(modifiedMsg, wholeStyle);
+    }
+
+    /**
+     * @return the style search pattern of the trigger that matches the
+     * message, or {@code null} if neither the style string nor the trigger
+     * string is found.
+     */
+    private static @Nullable Pattern restylePattern(CompiledTrigger trigger, MessageView view) {
+        String cleanMsgStr = view.stripped();
+        if (trigger.stylePattern != null
+                && trigger.stylePattern.matcher(cleanMsgStr).find()) {
+            return trigger.stylePattern;
+        } else if (trigger.stringStylePattern != null
+                && trigger.stringStylePattern.matcher(cleanMsgStr).find()) {
+            return trigger.stringStylePattern;
+        }
+        return null;
     }
 
     /**
-     * @param msgStr the message to search.
      * @param str the string to search for.
-     * @return the {@link Matcher} for the search.
+     * @return the word-bounded, case-insensitive search {@link Pattern} for
+     * the string, for use on message strings without format codes.
      */
-    private static Matcher triggerSearch(String msgStr, String str) {
+    static Pattern triggerPattern(String str) {
         /*
         U flag for full unicode comparison, performance using randomly-generated
         100-character msgStr and 10-character str is approx 1.18 microseconds
         per check without flag, 1.31 microseconds with.
          */
         return Pattern.compile(
-                "(?iU)(?<!\\w)((\\W?|(§[a-z0-9])+)" + Pattern.quote(str) + "\\W?)(?!\\w)")
-                .matcher(msgStr);
+                "(?iU)(?<!\\w)(\\W?" + Pattern.quote(str) + "\\W?)(?!\\w)");
     }
 
-    private static Matcher styleSearch(String msgStr, String str) {
-        return Pattern.compile("(?iU)" + Pattern.quote(str)).matcher(msgStr);
+    /**
+     * @param str the string to search for.
+     * @return the case-insensitive search {@link Pattern} for the string.
+     */
+    static Pattern stylePattern(String str) {
+        return Pattern.compile("(?iU)" + Pattern.quote(str));
     }
 
     /**
-     * @param msgStr the message to search.
-     * @param patternStr the pattern string to search for.
-     * @return  the {@link Matcher} for the search, if the pattern string was
+     * @param patternStr the pattern string to compile.
+     * @return the compiled {@link Pattern}, if the pattern string was
      * compilable, {@code null} otherwise.
      */
-    private static @Nullable Matcher regexSearch(String msgStr, String patternStr) {
+    static @Nullable Pattern regexPattern(String patternStr) {
         try {
-            return Pattern.compile(patternStr).matcher(msgStr);
+            return Pattern.compile(patternStr);
         } catch (PatternSyntaxException e) {
             ChatNotify.LOG.warn("ChatNotify: Error processing regex: " + e);
         }
@@ -264,15 +492,16 @@ public class MessageProcessor {
             Screen oldScreen = minecraft.screen;
             minecraft.setScreen(new ChatScreen(""));
             for (ResponseMessage msg : notif.responseMessages) {
-                msg.sendingString = msg.string;
+                String sendingString = msg.string;
                 if (matcher != null && allowRegex && msg.regexGroups) {
                     // Capturing group substitution
                     for (int i = 0; i <= matcher.groupCount(); i++) {
-                        msg.sendingString = msg.sendingString.replace("(" + i + ")", matcher.group(i));
+                        sendingString = sendingString.replace("(" + i + ")", matcher.group(i));
                     }
                 }
-                msg.countdown = msg.delayTicks;
-                ChatNotify.responseMessages.add(msg);
+                // Each activation schedules its own copy of the string
+                ChatNotify.responseMessages.schedule(
+                        new ResponseLimiter.Job(notif, sendingString), msg.delayTicks);
             }
             minecraft.setScreen(oldScreen);
         }
@@ -283,223 +512,46 @@ public class MessageProcessor {
      * TextStyle.
      * @param msg the message to restyle.
      * @param style the TextStyle to apply.
-     * @return the restyled message.
+     * @return the restyled message, or the original if the style is
+     * unchanged.
      */
     private static Component simpleRestyle(Component msg, TextStyle style) {
         if (style.isEnabled()) {
-            msg = msg.copy().setStyle(applyStyle(msg.getStyle(), style));
+            Style newStyle = applyStyle(msg.getStyle(), style);
+            // Shallow copy, the siblings are not modified
+            if (!newStyle.equals(msg.getStyle())) msg = msg.copy().setStyle(newStyle);
         }
         return msg;
     }
 
     /**
-     * Uses a recursive break-down algorithm to apply the specified TextStyle to
-     * only the part of the message that matches the trigger.
+     * Applies the specified TextStyle to only the parts of the message that
+     * match the trigger, using a {@link SpanRestyler}.
      * @param msg the message to restyle.
-     * @param trigger the string to restyle within the message.
+     * @param trigger the style search pattern of the string to restyle.
      * @param style the TextStyle to apply.
      * @return the restyled message.
      */
-    private static Component complexRestyle(Component msg, String trigger, TextStyle style) {
+    private static Component complexRestyle(Component msg, Pattern trigger, TextStyle style) {
         if (style.isEnabled()) {
-            msg = restyleComponent(msg.copy(), trigger, style);
-        }
-        return msg;
-    }
-
-    /**
-     * Recursively deconstructs the message to find the trigger and apply the
-     * specified style to it.
-     * @param msg the message to restyle.
-     * @param trigger the string to restyle within the message.
-     * @param style the TextStyle to apply.
-     * @return the restyled message.
-     */
-    private static MutableComponent restyleComponent(MutableComponent msg, String trigger,
-                                                     TextStyle style) {
-
-        if (msg.getContents() instanceof PlainTextContents) {
-            // PlainTextContents is typically the lowest level
-            msg = restyleContents(msg, trigger, style);
-        }
-        else if (msg.getContents() instanceof TranslatableContents contents) {
-            // Recurse for all args
-            Object[] args = contents.getArgs();
-            for (int i = 0; i < contents.getArgs().length; i++) {
-                if (args[i] instanceof Component argComponent) {
-                    args[i] = restyleComponent(argComponent.copy(), trigger, style);
-                }
-                else if (args[i] instanceof String argString) {
-                    args[i] = restyleComponent(Component.literal(argString), trigger, style);
-                }
-            }
-            // Reconstruct
-            msg = MutableComponent.create(new TranslatableContents(
-                    contents.getKey(), contents.getFallback(), args))
-                    .setStyle(msg.getStyle());
-        }
-        else {
-            // Recurse for all siblings
-            msg.getSiblings().replaceAll(text -> restyleComponent(text.copy(), trigger, style));
+            msg = SpanRestyler.restyle(msg, trigger, style);
         }
         return msg;
     }
 
-    /**
-     * If the message contents is {@link PlainTextContents}, deconstructs,
-     * restyles and reconstructs the message with the objective of applying
-     * the specified style only to occurrences of the trigger.
-     * @param msg the message to restyle.
-     * @param trigger the string to restyle within the message.
-     * @param style the TextStyle to apply.
-     * @return the restyled message.
-     */
-    private static MutableComponent restyleContents(MutableComponent msg, String trigger,
-                                                    TextStyle style) {
-        if (!(msg.getContents() instanceof PlainTextContents contents)) return msg;
-
-        String msgStr = contents.text();
-        Matcher matcher = styleSearch(msgStr, trigger);
-        if (matcher.find()) {
-            // Trigger found, restyle
-            List<Component> siblings = msg.getSiblings();
-
-            if (siblings.isEmpty()) {
-                // No siblings means that the trigger must exist at this level.
-
-                int start = matcher.start();
-                int end = matcher.end();
-
-                // Some magic to deal with format codes
-                if (msgStr.contains("§")) {
-                    String activeCodes = activeFormatCodes(msgStr.substring(0, end-trigger.length()));
-
-                    String msgTriggerFull = msgStr.substring(start,end);
-                    int realStart = startIgnoreCodes(msgTriggerFull,
-                            msgTriggerFull.length() - trigger.length());
-
-                    String msgStart = msgStr.substring(0, start);
-                    String msgTrigger = msgTriggerFull.substring(realStart);
-                    String msgEnd = msgStr.substring(end);
-
-                    msgStr = msgStart + '\u00a7' + 'r' + msgTrigger + activeCodes + msgEnd;
-
-                    end = end-realStart+2;
-                }
-
-                // msgStr before match
-                if (start != 0) {
-                    siblings.add(Component.literal(msgStr.substring(0, start))
-                            .setStyle(msg.getStyle()));
-                }
-
-                // Match
-                siblings.add(Component.literal(msgStr.substring(start, end))
-                        .setStyle(applyStyle(msg.getStyle(), style)));
-
-                // msgStr after match
-                if (end != msgStr.length()) {
-                    siblings.add(Component.literal(msgStr.substring(end))
-                            .setStyle(msg.getStyle()));
-                }
-
-                if (siblings.size() == 1) {
-                    msg = siblings.getFirst().copy();
-                }
-                else {
-                    MutableComponent newMessage = MutableComponent.create(PlainTextContents.EMPTY);
-                    newMessage.siblings.addAll(siblings);
-                    msg = newMessage;
-                }
-            }
-            else {
-                // Unable to restyle without affecting siblings, so add contents
-                // as first sibling of a new MutableComponent, followed by other
-                // siblings in original order, then restyle that.
-
-                MutableComponent replacement = MutableComponent.create(PlainTextContents.EMPTY);
-                replacement.setStyle(msg.getStyle());
-
-                siblings.addFirst(MutableComponent.create(msg.getContents()));
-                replacement.siblings.addAll(siblings);
-
-                msg = restyleComponent(replacement, trigger, style);
-            }
-        }
-        else {
-            // Trigger not found, try siblings
-            msg.getSiblings().replaceAll(text -> restyleComponent(text.copy(), trigger, style));
-        }
-        return msg;
-    }
-
-    /**
-     * Scans the specified string and identifies any format codes that are
-     * active at the end.
-     * @param msgStr the string to scan.
-     * @return the active format codes as a string.
-     */
-    private static String activeFormatCodes(String msgStr) {
-        List<ChatFormatting> activeCodes = new ArrayList<>();
-        for (int i = 0; i < msgStr.length(); i++) {
-            char c = msgStr.charAt(i);
-            if ((int)c == 167) {
-                char d = msgStr.charAt(i+1);
-                ChatFormatting format = ChatFormatting.getByCode(d);
-                if (format != null) {
-                    if (format == ChatFormatting.RESET) {
-                        activeCodes.clear();
-                    }
-                    else {
-                        if (format.isColor()) {
-                            activeCodes.removeIf(ChatFormatting::isColor);
-                        }
-                        activeCodes.add(format);
-                    }
-                }
-            }
-        }
-
-        StringBuilder builder = new StringBuilder();
-        for (ChatFormatting cf : activeCodes) {
-            builder.append('\u00a7');
-            builder.append(cf.getChar());
-        }
-        return builder.toString();
-    }
-
-    /**
-     * Workaround method; if a string passed to strSearch() contains format
-     * codes immediately preceding a match, the range returned will include the
-     * format codes.
-     *
-     * <p>This method scans the specified string to determine the start
-     * of the actual match, defined as being the first character after the
-     * last format code.<p>
-     * @param str the string with possible format codes.
-     * @param maxStart the maximum possible value of the match start.
-     * @return the index of the first character after the last format code.
-     */
-    private static int startIgnoreCodes(String str, int maxStart) {
-        char[] arr1 = str.toCharArray();
-        int realStart = 0;
-        for (int i = 0; i <= maxStart; i++) {
-            if ((int)arr1[i] == 167 && (((int)arr1[i+1] > 47 && (int)arr1[i+1] < 58) ||
-                    ((int)arr1[i+1] > 96 && (int)arr1[i+1] < 123))) {
-                realStart = i+2;
-            }
-        }
-        return realStart;
-    }
-
     /**
      * For each enabled field of the specified TextStyle, overrides the
-     * corresponding Style field.
+     * corresponding Style field. Results are cached until the config is
+     * saved.
      * @param style the Style to apply to.
      * @param textStyle the TextStyle to apply.
      * @return the Style, with the TextStyle applied.
      */
-    private static Style applyStyle(Style style, TextStyle textStyle) {
+    static Style applyStyle(Style style, TextStyle textStyle) {
+        return styleCache.apply(style, textStyle);
+    }
+
+    private static Style computeStyle(Style style, TextStyle textStyle) {
         if (textStyle.bold.isEnabled()) style = style.withBold(textStyle.bold.isOn());
         if (textStyle.italic.isEnabled()) style = style.withItalic(textStyle.italic.isOn());
         if (textStyle.underlined.isEnabled()) style = style.withUnderlined(textStyle.underlined.isOn());
@@ -528,40 +580,30 @@ public class MessageProcessor {
                             .withStyle(ChatFormatting.GRAY)));
         }
         // Overwrite existing events
-        return overwriteStyle(newStyle, msg.copy());
+        return overwriteStyle(newStyle, msg);
     }
 
+    /**
+     * Attaches raw debug info to the message. The raw dump is not rendered
+     * until the message is clicked, see {@link DebugInfoTable}.
+     */
     public static Component addRawInfo(Component msg) {
         Style newStyle;
         // Create new Hover and Click events
         newStyle = Style.EMPTY.
-                withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
-                        localized("common", "click_copy.raw").withStyle(ChatFormatting.GOLD)))
+                withHoverEvent(RAW_INFO_HOVER)
                 .withClickEvent(new ClickEvent(ClickEvent.Action.COPY_TO_CLIPBOARD,
-                        msg.toString()));
+                        debugInfo.add(msg)));
 
         // Overwrite existing events
-        return overwriteStyle(newStyle, msg.copy());
+        return overwriteStyle(newStyle, msg);
     }
 
-    public static MutableComponent overwriteStyle(Style style, MutableComponent msg) {
-        if (msg.getContents() instanceof TranslatableContents tc) {
-            Object[] args = tc.getArgs();
-            for (int i = 0; i < args.length; i++) {
-                if (args[i] instanceof Component c) {
-                    args[i] = overwriteStyle(style, c.copy());
-                }
-//                else if (args[i] instanceof String s) {
-//                    args[i] = Component.literal(s).setStyle(style);
-//                }
-                msg = MutableComponent.create(
-                        new TranslatableContents(tc.getKey(), tc.getFallback(), args))
-                        .setStyle(style.applyTo(msg.getStyle()));
-            }
-        } else {
-            msg.setStyle(style.applyTo(msg.getStyle()));
-            msg.getSiblings().replaceAll((sibling) -> overwriteStyle(style, sibling.copy()));
-        }
-        return msg;
+    /**
+     * Applies the specified style to every part of the message, overwriting
+     * existing values. Only the parts of the message that change are copied.
+     */
+    public static Component overwriteStyle(Style style, Component msg) {
+        return ComponentRewriter.restyleAll(msg, style::applyTo);
     }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import net.minecraft.network.chat.Component;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The string forms of a single message used during processing.
+ *
+ * <p>Each derived form is computed lazily, at most once, and is kept with an
+ * index map back to the raw string, so that match offsets found in one form
+ * can be translated without recomputing. When a derived form has the same
+ * length as the raw string its index map is the identity, and no map is
+ * allocated.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public final class MessageView {
+    private final @Nullable Component msg;
+    private @Nullable String raw;
+    private @Nullable String lower;
+    private int @Nullable [] lowerToRaw;
+    private @Nullable String stripped;
+    private int @Nullable [] strippedToRaw;
+
+    private MessageView(@Nullable Component msg, @Nullable String raw) {
+        this.msg = msg;
+        this.raw = raw;
+    }
+
+    /**
+     * @return a view of the string of the message, which is not computed
+     * until first needed.
+     */
+    public static MessageView of(Component msg) {
+        return new MessageView(msg, null);
+    }
+
+    /**
+     * @return a view of the specified string.
+     */
+    public static MessageView of(String str) {
+        return new MessageView(null, str);
+    }
+
+    /**
+     * @return the plain string of the message, including any format codes.
+     */
+    public String raw() {
+        if (raw == null) {
+            raw = msg == null ? "" : msg.getString();
+        }
+        return raw;
+    }
+
+    /**
+     * @return the raw string, converted to lowercase using
+     * {@link Locale#ROOT}.
+     */
+    public String lower() {
+        if (lower == null) {
+            String raw = raw();
+            lower = raw.toLowerCase(Locale.ROOT);
+            if (lower.length() != raw.length()) {
+                lowerToRaw = lowerIndexMap(raw, lower.length());
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * @return the raw string, with all format codes removed. Equivalent to
+     * {@link net.minecraft.util.StringUtil#stripColor}.
+     */
+    public String stripped() {
+        if (stripped == null) {
+            String raw = raw();
+            int first = raw.indexOf('§');
+            if (first == -1) {
+                stripped = raw;
+            } else {
+                StringBuilder builder = new StringBuilder(raw.length());
+                int[] map = new int[raw.length() + 1];
+                builder.append(raw, 0, first);
+                for (int i = 0; i < first; i++) map[i] = i;
+                for (int i = first; i < raw.length(); i++) {
+                    if (raw.charAt(i) == '§' && i + 1 < raw.length()
+                            && isFormatCode(raw.charAt(i + 1))) {
+                        i++;
+                    } else {
+                        map[builder.length()] = i;
+                        builder.append(raw.charAt(i));
+                    }
+                }
+                map[builder.length()] = raw.length();
+                stripped = builder.toString();
+                if (stripped.length() != raw.length()) strippedToRaw = map;
+            }
+        }
+        return stripped;
+    }
+
+    /**
+     * @param index an index into {@link #lower()}.
+     * @return the corresponding index into {@link #raw()}.
+     */
+    public int lowerToRaw(int index) {
+        lower();
+        return lowerToRaw == null ? index : lowerToRaw[index];
+    }
+
+    /**
+     * @param index an index into {@link #stripped()}.
+     * @return the corresponding index into {@link #raw()}.
+     */
+    public int strippedToRaw(int index) {
+        stripped();
+        return strippedToRaw == null ? index : strippedToRaw[index];
+    }
+
+    /**
+     * @param index an index into {@link #raw()}.
+     * @return the index into {@link #stripped()} of the first character at
+     * or after the specified raw index.
+     */
+    public int rawToStripped(int index) {
+        stripped();
+        if (strippedToRaw == null) return index;
+        int i = Arrays.binarySearch(strippedToRaw, 0, stripped.length() + 1, index);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * Removes the characters of the specified part of {@link #stripped()}
+     * from the raw string. Format codes preceding or following the part are
+     * kept, so the formatting of the remaining text is unchanged.
+     * @param start the start index of the part to remove, in
+     *              {@link #stripped()}.
+     * @param end the end index of the part to remove, in {@link #stripped()}.
+     * @return a view of the raw string with the specified part removed.
+     */
+    public MessageView withoutStripped(int start, int end) {
+        if (start == end) return this;
+        return without(strippedToRaw(start), strippedToRaw(end - 1) + 1);
+    }
+
+    /**
+     * @param start the start index of the part to remove, in {@link #raw()}.
+     * @param end the end index of the part to remove, in {@link #raw()}.
+     * @return a view of the raw string with the specified part removed.
+     */
+    public MessageView without(int start, int end) {
+        String raw = raw();
+        return of(raw.substring(0, start) + raw.substring(end));
+    }
+
+    /**
+     * Matches the characters accepted by the pattern used by
+     * {@link net.minecraft.util.StringUtil#stripColor}.
+     */
+    private static boolean isFormatCode(char c) {
+        return (c >= '0' && c <= '9')
+                || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')
+                || (c >= 'k' && c <= 'o') || (c >= 'K' && c <= 'O')
+                || c == 'r' || c == 'R';
+    }
+
+    /**
+     * Builds the index map for a lowercase string of different length to the
+     * original, using the lowercase form of each code point.
+     */
+    private static int[] lowerIndexMap(String raw, int lowerLength) {
+        int[] map = new int[lowerLength + 1];
+        int j = 0;
+        for (int i = 0; i < raw.length(); ) {
+            int cp = raw.codePointAt(i);
+            int n = new String(Character.toChars(cp)).toLowerCase(Locale.ROOT).length();
+            for (int k = 0; k < n && j < lowerLength; k++) map[j++] = i;
+            i += Character.charCount(cp);
+        }
+        while (j <= lowerLength) map[j++] = raw.length();
+        return map;
+    }
+}
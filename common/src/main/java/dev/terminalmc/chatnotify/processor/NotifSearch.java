@@ -0,0 +1,249 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.config.Notification;
+import dev.terminalmc.chatnotify.processor.CompiledConfig.CompiledNotif;
+import dev.terminalmc.chatnotify.processor.CompiledConfig.CompiledTrigger;
+import net.minecraft.network.chat.Component;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+
+/**
+ * Search for the first notification that should be activated by a message.
+ *
+ * <p>The single-pass matchers of the {@link CompiledConfig} are run once when
+ * the search is created. The notifications are then checked in order of
+ * priority, either sequentially or, if the number of notifications is at
+ * least {@link CompiledConfig#parallelThreshold}, split into ranges that are
+ * checked in parallel on the common {@link ForkJoinPool}. In both cases the
+ * result is the match with the lowest notification index.</p>
+ *
+ * <p>In multi-match mode, all notifications are checked sequentially and
+ * every match is returned, in order of priority. While a trace is recorded,
+ * the search is always sequential.</p>
+ *
+ * <p>Message actions are not completed by the search, so the parallel mode
+ * has no side effects outside of the search itself.</p>
+ */
+final class NotifSearch {
+    /**
+     * The minimum number of notifications checked by a single parallel task.
+     */
+    static final int MIN_CHUNK_SIZE = 32;
+
+    private final CompiledConfig rules;
+    private final UsernameMatcher users;
+    private final String msgStr;
+    private final String checkedCleanStr;
+    private final BitSet plainHits;
+    private final BitSet regexCandidates;
+    private final BitSet keyHits;
+    private final BitSet nameHits;
+    private final @Nullable TraceRecorder.Trace trace;
+
+    /**
+     * @param rules the compiled matching rules.
+     * @param users the compiled username triggers.
+     * @param msg the original message.
+     * @param view the original message string.
+     * @param checkedView the owner-checked message string.
+     * @param trace the trace to record evaluations to, if any.
+     */
+    NotifSearch(CompiledConfig rules, UsernameMatcher users, Component msg, MessageView view,
+                MessageView checkedView, @Nullable TraceRecorder.Trace trace) {
+        this.rules = rules;
+        this.users = users;
+        this.trace = trace;
+        this.msgStr = view.raw();
+        // Normal triggers are matched without format codes
+        this.checkedCleanStr = checkedView.stripped();
+        if (rules.collectStats) {
+            long start = System.nanoTime();
+            this.plainHits = rules.plainMatcher.search(checkedCleanStr);
+            long plainEnd = System.nanoTime();
+            MatchStats.PLAIN_PASS.record(plainEnd - start, !plainHits.isEmpty());
+            this.regexCandidates = rules.regexSet.candidates(msgStr);
+            long regexEnd = System.nanoTime();
+            MatchStats.REGEX_PREFILTER.record(regexEnd - plainEnd, !regexCandidates.isEmpty());
+            this.keyHits = rules.keyIndex.search(msg);
+            MatchStats.KEY_INDEX.record(System.nanoTime() - regexEnd, !keyHits.isEmpty());
+        } else {
+            this.plainHits = rules.plainMatcher.search(checkedCleanStr);
+            this.regexCandidates = rules.regexSet.candidates(msgStr);
+            // The key index memo is not thread-safe, so it is resolved here
+            this.keyHits = rules.keyIndex.search(msg);
+        }
+        this.nameHits = users.search(checkedCleanStr);
+    }
+
+    /**
+     * A trigger match that should activate a notification.
+     * @param index the index of the notification.
+     * @param notif the notification to activate.
+     * @param trigger the trigger that matched.
+     * @param matcher the matcher of the trigger, if it is a regex trigger.
+     */
+    record Match(int index, Notification notif, CompiledTrigger trigger,
+                 @Nullable Matcher matcher) {}
+
+    /**
+     * @return the highest-priority match, or {@code null} if no notification
+     * should be activated.
+     */
+    @Nullable Match find() {
+        long start = rules.collectStats ? System.nanoTime() : 0;
+        Match match;
+        int count = rules.notifs.size();
+        if (rules.parallelThreshold > 0 && count >= rules.parallelThreshold && trace == null) {
+            int parallelism = ForkJoinPool.getCommonPoolParallelism();
+            int chunkSize = Math.max(MIN_CHUNK_SIZE, count / (parallelism * 4));
+            match = ForkJoinPool.commonPool().invoke(
+                    new Task(0, count, chunkSize, new AtomicInteger(count)));
+        } else {
+            match = find(0, count, null, null);
+        }
+        if (rules.collectStats) {
+            MatchStats.NOTIF_SEARCH.record(System.nanoTime() - start, match != null);
+        }
+        return match;
+    }
+
+    /**
+     * Finds the match of every notification that should be activated, in a
+     * single sequential pass.
+     * @return the matches in order of priority, which may be empty.
+     */
+    List<Match> findAll() {
+        long start = rules.collectStats ? System.nanoTime() : 0;
+        List<Match> matches = new ArrayList<>();
+        find(0, rules.notifs.size(), null, matches);
+        if (rules.collectStats) {
+            MatchStats.NOTIF_SEARCH.record(System.nanoTime() - start, !matches.isEmpty());
+        }
+        return matches;
+    }
+
+    /**
+     * Checks the notifications in the specified range, in order.
+     * @param from the index of the first notification to check.
+     * @param to the index after the last notification to check.
+     * @param bound if not {@code null}, the lowest index at which a match has
+     * been found by any task. The search stops when it passes the bound, and
+     * lowers it when a match is found.
+     * @param all if not {@code null}, all matches in the range are added to
+     *            the list, rather than stopping at the first.
+     * @return the first match in the range, or {@code null} if none.
+     */
+    private @Nullable Match find(int from, int to, @Nullable AtomicInteger bound,
+                                 @Nullable List<Match> all) {
+        Match first = null;
+        boolean stats = rules.collectStats;
+        boolean timed = stats || trace != null;
+        // Exclusion evaluation is per-message state, so each range has its own
+        ExclusionSet.Evaluation exclusions = null; // Created when first needed
+        for (int i = from; i < to; i++) {
+            if (bound != null && bound.get() < i) return null;
+            CompiledNotif cNotif = rules.notifs.get(i);
+            Notification notif = cNotif.notif;
+            if (notif.isEnabled() && !notif.editing) {
+                long notifStart = stats ? System.nanoTime() : 0;
+                Match match = null;
+                for (CompiledTrigger trigger : i == 0 ? users.userTriggers : cNotif.triggers) {
+                    long triggerStart = timed ? System.nanoTime() : 0;
+                    Matcher matcher = null;
+                    boolean hit = switch(trigger.type) {
+                        case KEY -> keyHits.get(trigger.keyIndex);
+                        case REGEX -> {
+                            if (trigger.regexIndex == -1 || !regexCandidates.get(trigger.regexIndex)) {
+                                yield false;
+                            }
+                            // Run the full pattern to find the capturing groups
+                            matcher = GuardedRegex.find(trigger.trigger, trigger.pattern, msgStr,
+                                    rules.regexBudgetNanos);
+                            yield matcher != null;
+                        }
+                        case NORMAL -> trigger.nameIndex != -1
+                                ? nameHits.get(trigger.nameIndex)
+                                : plainHits.get(trigger.plainIndex);
+                    };
+                    if (timed) {
+                        long nanos = System.nanoTime() - triggerStart;
+                        if (stats) trigger.trigger.stats.record(nanos, hit);
+                        if (trace != null) trace.trigger(i, trigger.trigger, hit, nanos);
+                    }
+                    if (hit) {
+                        boolean exclHit = false;
+                        if (notif.exclusionEnabled && !cNotif.exclusionTriggers.isEmpty()) {
+                            if (exclusions == null) {
+                                exclusions = rules.exclusionSet.evaluate(
+                                        msgStr, checkedCleanStr, keyHits, trace);
+                            }
+                            exclHit = exclusions.anyMatch(cNotif.exclusionTriggers);
+                        }
+
+                        if (!exclHit) {
+                            match = new Match(i, notif, trigger, matcher);
+                            break;
+                        }
+                    }
+                }
+                if (stats) notif.stats.record(System.nanoTime() - notifStart, match != null);
+                if (match != null) {
+                    if (all == null) {
+                        if (bound != null) bound.accumulateAndGet(i, Math::min);
+                        return match;
+                    }
+                    if (first == null) first = match;
+                    all.add(match);
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Splits a range of notifications in two, preferring the match of the
+     * lower half.
+     */
+    private class Task extends RecursiveTask<Match> {
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final AtomicInteger bound;
+
+        Task(int from, int to, int chunkSize, AtomicInteger bound) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.bound = bound;
+        }
+
+        @Override
+        protected @Nullable Match compute() {
+            if (to - from <= chunkSize) {
+                return find(from, to, bound, null);
+            }
+            int mid = (from + to) >>> 1;
+            Task upper = new Task(mid, to, chunkSize, bound);
+            upper.fork();
+            Match match = new Task(from, mid, chunkSize, bound).compute();
+            if (match != null) {
+                // The upper half will stop at the bound
+                upper.cancel(false);
+                return match;
+            }
+            return upper.join();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches all normal (non-regex, non-key) triggers against a message in a
+ * single pass, using one case-insensitive {@link AhoCorasick} automaton.
+ *
+ * <p>Each candidate occurrence is accepted only if it satisfies the same
+ * word-boundary rules as the search pattern created by
+ * {@link MessageProcessor#triggerPattern}, that is
+ * {@code (?<!\w)\W?<trigger>\W?(?!\w)}. Like the pattern, the matcher is
+ * used on message strings with format codes removed
+ * ({@link MessageView#stripped()}).</p>
+ */
+public final class PlainTriggerMatcher {
+    private final AhoCorasick automaton;
+    // Trigger ids for each distinct pattern of the automaton
+    private final int[][] triggerIds;
+    private final int size;
+
+    /**
+     * @param triggers the trigger strings. The id of each trigger is its index
+     *                 in the list.
+     */
+    public PlainTriggerMatcher(List<String> triggers) {
+        this.size = triggers.size();
+        // Triggers that differ only by case share a pattern
+        Map<String, Integer> patternIds = new HashMap<>();
+        List<String> patterns = new ArrayList<>();
+        List<List<Integer>> ids = new ArrayList<>();
+        for (int i = 0; i < triggers.size(); i++) {
+            String folded = fold(triggers.get(i));
+            Integer patternId = patternIds.get(folded);
+            if (patternId == null) {
+                patternId = patterns.size();
+                patternIds.put(folded, patternId);
+                patterns.add(folded);
+                ids.add(new ArrayList<>());
+            }
+            ids.get(patternId).add(i);
+        }
+        this.automaton = new AhoCorasick(patterns, true);
+        this.triggerIds = new int[ids.size()][];
+        for (int i = 0; i < ids.size(); i++) {
+            triggerIds[i] = ids.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private static String fold(String str) {
+        char[] chars = str.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = AhoCorasick.fold(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return the number of triggers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Scans the message once for all triggers.
+     * @param msgStr the message to search, without format codes.
+     * @return the set of ids of all triggers found in the message.
+     */
+    public BitSet search(String msgStr) {
+        BitSet hits = new BitSet(size);
+        automaton.search(msgStr, (id, start, end) -> {
+            if (isBounded(msgStr, start, end)) {
+                for (int triggerId : triggerIds[id]) {
+                    hits.set(triggerId);
+                }
+            }
+        });
+        return hits;
+    }
+
+    /**
+     * Determines whether an occurrence of a trigger is bounded in the same way
+     * as required by the trigger search pattern.
+     * @param str the searched string.
+     * @param start the start index of the occurrence.
+     * @param end the end index of the occurrence.
+     * @return {@code true} if the occurrence is not part of a word.
+     */
+    static boolean isBounded(String str, int start, int end) {
+        // The optional non-word characters are always satisfiable if the
+        // adjacent characters are not word characters.
+        if (end < str.length() && isWordChar(str.codePointAt(end))) return false;
+        return start == 0 || !isWordChar(str.codePointBefore(start));
+    }
+
+    /**
+     * Equivalent to {@code \w} with {@link java.util.regex.Pattern#UNICODE_CHARACTER_CLASS}.
+     */
+    static boolean isWordChar(int cp) {
+        if (Character.isAlphabetic(cp) || Character.isDigit(cp)) return true;
+        return switch(Character.getType(cp)) {
+            case Character.NON_SPACING_MARK, Character.ENCLOSING_MARK,
+                 Character.COMBINING_SPACING_MARK, Character.CONNECTOR_PUNCTUATION -> true;
+            default -> cp == 0x200C || cp == 0x200D;
+        };
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import net.minecraft.network.chat.PlayerChatMessage;
+
+import java.util.UUID;
+
+/**
+ * Sender metadata of a player chat message, which allows the message to be
+ * attributed without the heuristic check of {@link MessageProcessor}.
+ * @param sender the UUID of the sender, as signed by the server.
+ * @param content the undecorated content of the message, as sent.
+ */
+public record PlayerChatInfo(UUID sender, String content) {
+    public static PlayerChatInfo of(PlayerChatMessage message) {
+        return new PlayerChatInfo(message.sender(), message.signedContent());
+    }
+}
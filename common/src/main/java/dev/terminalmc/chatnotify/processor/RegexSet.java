@@ -0,0 +1,283 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Combined evaluation of a set of regex patterns.
+ *
+ * <p>{@link java.util.regex} has no multi-pattern engine, so this works as a
+ * prefilter in the style of a RegexSet. A literal string that must appear in
+ * any match is extracted from each pattern, and all such literals are searched
+ * for in a single case-insensitive {@link AhoCorasick} pass. Only patterns
+ * whose required literal was found (and patterns with no extractable literal)
+ * are reported as candidates, and only those need to be run as a
+ * {@link java.util.regex.Matcher}, which also preserves capturing groups.</p>
+ */
+public final class RegexSet {
+    private static final Pattern COMMENTS_FLAG = Pattern.compile("\\(\\?[a-zA-Z-]*x");
+
+    private final int size;
+    private final AhoCorasick literals;
+    // Pattern ids for each distinct literal of the automaton
+    private final int[][] literalOwners;
+    // Patterns that must always be run
+    private final BitSet unfiltered;
+
+    /**
+     * @param patterns the patterns. The id of each pattern is its index in the
+     *                 list. {@code null} entries are never reported.
+     */
+    public RegexSet(List<@Nullable Pattern> patterns) {
+        this.size = patterns.size();
+        this.unfiltered = new BitSet(size);
+        Map<String, Integer> literalIds = new HashMap<>();
+        List<String> literalList = new ArrayList<>();
+        List<List<Integer>> owners = new ArrayList<>();
+        for (int i = 0; i < patterns.size(); i++) {
+            Pattern pattern = patterns.get(i);
+            if (pattern == null) continue;
+            String literal = requiredLiteral(pattern.pattern());
+            if (literal == null) {
+                unfiltered.set(i);
+            } else {
+                Integer literalId = literalIds.get(literal);
+                if (literalId == null) {
+                    literalId = literalList.size();
+                    literalIds.put(literal, literalId);
+                    literalList.add(literal);
+                    owners.add(new ArrayList<>());
+                }
+                owners.get(literalId).add(i);
+            }
+        }
+        this.literals = new AhoCorasick(literalList, true);
+        this.literalOwners = new int[owners.size()][];
+        for (int i = 0; i < owners.size(); i++) {
+            literalOwners[i] = owners.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * @return the number of patterns in the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Scans the message once for the required literals of all patterns.
+     * @param msgStr the message to search.
+     * @return the set of ids of all patterns that may match the message.
+     * Patterns not in the set are guaranteed not to match.
+     */
+    public BitSet candidates(String msgStr) {
+        BitSet candidates = (BitSet)unfiltered.clone();
+        literals.search(msgStr, (id, start, end) -> {
+            for (int patternId : literalOwners[id]) {
+                candidates.set(patternId);
+            }
+        });
+        return candidates;
+    }
+
+    /**
+     * Conservatively extracts the longest literal string that must be present
+     * in any match of the pattern.
+     *
+     * <p>Only literals in the top-level sequence of the pattern are
+     * considered. If the pattern contains top-level alternation, or uses
+     * syntax that is not understood, no literal (or only the longest literal
+     * found before that point) is returned.</p>
+     * @param regex the pattern string, which must be a valid pattern.
+     * @return the literal, or {@code null} if none could be found.
+     */
+    static @Nullable String requiredLiteral(String regex) {
+        // Whitespace and comments are not literal in comments mode
+        if (COMMENTS_FLAG.matcher(regex).find()) return null;
+        if (hasTopLevelAlternation(regex)) return null;
+        String best = "";
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        int n = regex.length();
+        scan:
+        while (i < n) {
+            char c = regex.charAt(i);
+            int atomStart = run.length();
+            boolean literal = false;
+            switch(c) {
+                case '(' -> {
+                    if (regex.startsWith("(?", i)) {
+                        // Inline flags, either (?flags) or (?flags:X)
+                        int j = i + 2;
+                        while (j < n && (Character.isLetter(regex.charAt(j))
+                                || regex.charAt(j) == '-')) j++;
+                        if (j > i + 2 && j < n && regex.charAt(j) == ')') {
+                            i = j + 1;
+                            continue;
+                        }
+                    }
+                    i = skipGroup(regex, i);
+                }
+                case '[' -> i = skipClass(regex, i);
+                case '\\' -> {
+                    // Escaped letters and digits have special meanings
+                    if (i + 1 < n && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                        run.append(regex.charAt(i + 1));
+                        literal = true;
+                        i += 2;
+                    } else {
+                        i = -1;
+                    }
+                }
+                case '.', '^', '$' -> i++;
+                // Alternation is excluded above, and a dangling quantifier
+                // cannot occur in a valid pattern
+                case '|', '?', '*', '+', '{' -> i = -1;
+                default -> {
+                    run.appendCodePoint(regex.codePointAt(i));
+                    literal = true;
+                    i += Character.charCount(regex.codePointAt(i));
+                }
+            }
+            if (i == -1) {
+                // Unknown syntax, which may also apply a quantifier to any
+                // previous atom, so discard the current run
+                run.setLength(0);
+                break scan;
+            }
+
+            // Check for a quantifier applying to the atom
+            int min = -1;
+            if (i < n) {
+                char q = regex.charAt(i);
+                if (q == '?' || q == '*' || q == '+') {
+                    min = q == '+' ? 1 : 0;
+                    i++;
+                } else if (q == '{') {
+                    int j = i + 1;
+                    while (j < n && Character.isDigit(regex.charAt(j))) j++;
+                    int close = regex.indexOf('}', j);
+                    if (j == i + 1 || close == -1) {
+                        run.setLength(0);
+                        break scan;
+                    }
+                    min = Integer.parseInt(regex.substring(i + 1, Math.min(j, i + 10)));
+                    i = close + 1;
+                }
+                if (min != -1) {
+                    // Lazy or possessive modifier
+                    if (i < n && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) i++;
+                }
+            }
+
+            if (!literal || min == 0) {
+                // The atom is not a required literal, end the run
+                run.setLength(atomStart);
+                if (run.length() > best.length()) best = run.toString();
+                run.setLength(0);
+            } else if (min > 0) {
+                // Required, but repeated, so the run cannot continue
+                if (run.length() > best.length()) best = run.toString();
+                run.setLength(0);
+            }
+        }
+        if (run.length() > best.length()) best = run.toString();
+        return best.isEmpty() ? null : best;
+    }
+
+    /**
+     * @return {@code true} if the pattern contains alternation outside of any
+     * group, or if that could not be determined.
+     */
+    private static boolean hasTopLevelAlternation(String regex) {
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            switch(c) {
+                case '\\' -> {
+                    if (regex.startsWith("\\Q", i)) {
+                        int end = regex.indexOf("\\E", i + 2);
+                        if (end == -1) return false; // Quoted until the end
+                        i = end + 2;
+                    } else {
+                        i += 2;
+                    }
+                }
+                case '[' -> {
+                    i = skipClass(regex, i);
+                    if (i == -1) return true;
+                }
+                case '(' -> {
+                    i = skipGroup(regex, i);
+                    if (i == -1) return true;
+                }
+                case '|' -> {
+                    return true;
+                }
+                default -> i++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the index after the group starting at the specified index, or
+     * -1 if the group could not be parsed.
+     */
+    private static int skipGroup(String regex, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q') return -1;
+                i += 2;
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+                if (i == -1) return -1;
+            } else {
+                if (c == '(') depth++;
+                else if (c == ')' && --depth == 0) return i + 1;
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index after the character class starting at the specified
+     * index, or -1 if the class could not be parsed.
+     */
+    private static int skipClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') i++;
+        if (i < regex.length() && regex.charAt(i) == ']') return -1; // Ambiguous
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q') return -1;
+                i += 2;
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+                if (i == -1) return -1;
+            } else if (c == ']') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.ChatNotify;
+import dev.terminalmc.chatnotify.config.Config;
+import dev.terminalmc.chatnotify.config.Notification;
+import dev.terminalmc.chatnotify.util.TokenBucket;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Outgoing rate limiter for response messages, between the response
+ * scheduler and the server.
+ *
+ * <p>Each message that is due is added to a pending queue, and is sent as soon
+ * as both the global {@link TokenBucket} and the bucket of its notification
+ * have a token. The global bucket holds {@link Config#responseBurst} tokens,
+ * and the bucket of each notification holds one token per response message of
+ * the notification, so a single activation is never delayed by its own
+ * bucket. Both are refilled at one token per {@link Config#responseInterval}
+ * ticks, and if that is 0, messages are sent as soon as they are due.</p>
+ *
+ * <p>If {@link Config#coalesceResponses} is enabled, a message that is
+ * identical to a message already pending is discarded. A message that would
+ * exceed {@link #MAX_PENDING} is dropped. Discarded and dropped messages, and
+ * messages that cannot be sent on the tick they are due, are logged.</p>
+ *
+ * <p>The default budgets keep responses below the vanilla server chat spam
+ * limit, which is exceeded by sending more than about 10 messages in quick
+ * succession, or more than one per second sustained.</p>
+ *
+ * <p>Not thread-safe, only for use by the client thread.</p>
+ */
+public final class ResponseLimiter {
+    public static final int MAX_PENDING = 32;
+
+    /**
+     * A response message to send.
+     * @param notif the notification that activated the response.
+     * @param message the message or command string to send.
+     */
+    public record Job(Notification notif, String message) {}
+
+    private long tick = 0;
+    private @Nullable TokenBucket global = null;
+    private final Map<Notification, TokenBucket> notifBuckets = new WeakHashMap<>();
+    // Pending jobs, in order of arrival
+    private final List<Job> pending = new ArrayList<>();
+
+    /**
+     * Advances to the next tick, adds the jobs that are due, and takes the
+     * pending jobs that can be sent within the budgets.
+     * @param due the jobs due on the tick, in order.
+     * @param config the config specifying the budgets.
+     * @return the message strings to send on the tick, in order.
+     */
+    public List<String> advance(List<Job> due, Config config) {
+        tick++;
+        for (Job job : due) {
+            if (config.coalesceResponses && isPending(job.message())) {
+                ChatNotify.LOG.info("Discarded response message '{}', an identical "
+                        + "message is already waiting for the rate limit", job.message());
+            } else if (pending.size() >= MAX_PENDING) {
+                ChatNotify.LOG.warn("Dropped response message '{}', {} messages are "
+                        + "already waiting for the rate limit", job.message(), pending.size());
+            } else {
+                pending.add(job);
+            }
+        }
+        if (pending.isEmpty()) return List.of();
+
+        List<String> sending = new ArrayList<>();
+        if (config.responseInterval == 0) {
+            pending.forEach((job) -> sending.add(job.message()));
+            pending.clear();
+            return sending;
+        }
+
+        TokenBucket global = globalBucket(config);
+        Iterator<Job> iter = pending.iterator();
+        while (iter.hasNext() && global.hasToken(tick)) {
+            Job job = iter.next();
+            TokenBucket bucket = notifBucket(job.notif(), config);
+            if (bucket.hasToken(tick)) {
+                global.take();
+                bucket.take();
+                sending.add(job.message());
+                iter.remove();
+            }
+        }
+        for (Job job : due) {
+            if (pending.stream().anyMatch((p) -> p == job)) {
+                ChatNotify.LOG.info("Deferred response message '{}' to stay within the "
+                        + "rate limit", job.message());
+            }
+        }
+        return sending;
+    }
+
+    private boolean isPending(String message) {
+        for (Job job : pending) {
+            if (job.message().equals(message)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the global bucket, replaced if the budgets have changed.
+     */
+    private TokenBucket globalBucket(Config config) {
+        if (global == null || global.capacity() != config.responseBurst
+                || global.refillTicks() != config.responseInterval) {
+            global = new TokenBucket(config.responseBurst, config.responseInterval, tick);
+        }
+        return global;
+    }
+
+    /**
+     * @return the bucket of the notification, replaced if the budget or the
+     * number of response messages of the notification has changed.
+     */
+    private TokenBucket notifBucket(Notification notif, Config config) {
+        int capacity = Math.max(1, notif.responseMessages.size());
+        TokenBucket bucket = notifBuckets.get(notif);
+        if (bucket == null || bucket.capacity() != capacity
+                || bucket.refillTicks() != config.responseInterval) {
+            bucket = new TokenBucket(capacity, config.responseInterval, tick);
+            notifBuckets.put(notif, bucket);
+        }
+        return bucket;
+    }
+
+    /**
+     * @return the number of pending jobs.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Discards all pending jobs. The budgets are kept.
+     */
+    public void clear() {
+        pending.clear();
+    }
+}
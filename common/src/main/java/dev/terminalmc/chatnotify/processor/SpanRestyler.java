@@ -0,0 +1,314 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.config.TextStyle;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.ComponentContents;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+import net.minecraft.network.chat.contents.PlainTextContents;
+import net.minecraft.network.chat.contents.TranslatableContents;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies {@link TextStyle}s to the parts of a message that match patterns,
+ * in a single pass.
+ *
+ * <p>The text of the message is collected in rendering order into scopes.
+ * Adjacent plain parts of the message share a scope, so a match may span
+ * several of them. Each argument of translatable contents has its own scope,
+ * as the text of the translation itself cannot be restyled, and the text after
+ * translatable contents starts a new scope, so that a match never joins text
+ * that is separated by a translation. The
+ * patterns are matched against the text of each scope without format codes,
+ * and the matches are mapped back to the text using the index map of a
+ * {@link MessageView}.</p>
+ *
+ * <p>The message is then rebuilt copy-on-write. Only the plain text contents
+ * that overlap a match are split into parts, and translatable contents are
+ * rebuilt with their restyled arguments, so the structure of the message is
+ * otherwise kept and translations still follow the selected language.</p>
+ *
+ * <p>Format codes within plain text apply until the end of the text, so where
+ * it is split, the codes active at the split are restored at the start of the
+ * following part, using the {@link FormatState} of the text.</p>
+ */
+public final class SpanRestyler {
+    private SpanRestyler() {
+    }
+
+    /**
+     * The text of the contents of a single component.
+     */
+    private static final class Leaf {
+        final String text;
+        final boolean plain;
+        // The index of the highlight applied to each character, or -1
+        final int[] owners;
+        boolean marked = false;
+
+        Leaf(String text, boolean plain) {
+            this.text = text;
+            this.plain = plain;
+            this.owners = new int[text.length()];
+            Arrays.fill(owners, -1);
+        }
+    }
+
+    /**
+     * A pattern to highlight, and the style to apply to its matches.
+     */
+    public record Highlight(Pattern pattern, TextStyle style) {}
+
+    /**
+     * @param msg the message to restyle.
+     * @param pattern the style search pattern of the string to restyle.
+     * @param textStyle the TextStyle to apply.
+     * @return a restyled copy of the message, or the original if the pattern
+     * does not match.
+     */
+    public static Component restyle(Component msg, Pattern pattern, TextStyle textStyle) {
+        return restyle(msg, List.of(new Highlight(pattern, textStyle)));
+    }
+
+    /**
+     * Applies multiple highlights in a single pass. Where the matches of
+     * highlights overlap, the earlier highlight in the list is applied.
+     * @param msg the message to restyle.
+     * @param highlights the highlights, in order of priority.
+     * @return a restyled copy of the message, or the original if no pattern
+     * matches.
+     */
+    public static Component restyle(Component msg, List<Highlight> highlights) {
+        List<Leaf> leaves = new ArrayList<>();
+        List<List<Leaf>> scopes = new ArrayList<>();
+        List<Leaf> scope = new ArrayList<>();
+        scopes.add(scope);
+        collect(msg, leaves, scopes, scope);
+
+        boolean found = false;
+        for (List<Leaf> s : scopes) {
+            found |= markScope(s, highlights);
+        }
+        if (!found) return msg;
+
+        return rebuild(msg, leaves.iterator(), highlights);
+    }
+
+    /**
+     * Collects the leaves of the component in rendering order.
+     * @param scope the scope of the text preceding the component.
+     * @return the scope of the text following the component.
+     */
+    private static List<Leaf> collect(Component node, List<Leaf> leaves,
+                                      List<List<Leaf>> scopes, List<Leaf> scope) {
+        ComponentContents contents = node.getContents();
+        if (contents instanceof TranslatableContents tc) {
+            for (Object arg : tc.getArgs()) {
+                List<Leaf> argScope = new ArrayList<>();
+                scopes.add(argScope);
+                if (arg instanceof Component argComponent) {
+                    collect(argComponent, leaves, scopes, argScope);
+                } else if (arg != null) {
+                    collect(Component.literal(arg.toString()), leaves, scopes, argScope);
+                }
+            }
+            // The translated text separates the text before and after it
+            scope = new ArrayList<>();
+            scopes.add(scope);
+        } else {
+            StringBuilder builder = new StringBuilder();
+            contents.visit((str) -> {
+                builder.append(str);
+                return Optional.empty();
+            });
+            Leaf leaf = new Leaf(builder.toString(), contents instanceof PlainTextContents);
+            leaves.add(leaf);
+            scope.add(leaf);
+        }
+        for (Component sibling : node.getSiblings()) {
+            scope = collect(sibling, leaves, scopes, scope);
+        }
+        return scope;
+    }
+
+    /**
+     * Matches all highlights against the text of the scope, and marks the
+     * matched characters of its leaves.
+     * @return {@code true} if any pattern matched.
+     */
+    private static boolean markScope(List<Leaf> scope, List<Highlight> highlights) {
+        if (scope.isEmpty()) return false;
+        StringBuilder builder = new StringBuilder();
+        for (Leaf leaf : scope) builder.append(leaf.text);
+        if (builder.isEmpty()) return false;
+        MessageView view = MessageView.of(builder.toString());
+
+        int[] owners = new int[view.raw().length()];
+        Arrays.fill(owners, -1);
+        boolean found = false;
+        for (int i = 0; i < highlights.size(); i++) {
+            found |= markMatches(view, highlights.get(i).pattern(), i, owners);
+        }
+        if (!found) return false;
+
+        int start = 0;
+        for (Leaf leaf : scope) {
+            int length = leaf.text.length();
+            if (leaf.plain) {
+                for (int i = 0; i < length; i++) {
+                    if (owners[start + i] != -1) {
+                        leaf.owners[i] = owners[start + i];
+                        leaf.marked = true;
+                    }
+                }
+            }
+            start += length;
+        }
+        return true;
+    }
+
+    /**
+     * Marks the characters of the non-overlapping matches of the pattern that
+     * are not already marked. The pattern is matched without format codes, so
+     * codes within the text do not prevent a match, and each match is mapped
+     * back to the raw string from its first to its last character.
+     * @return {@code true} if the pattern matched.
+     */
+    private static boolean markMatches(MessageView view, Pattern pattern, int owner,
+                                       int[] owners) {
+        String cleanMsgStr = view.stripped();
+        boolean found = false;
+        Matcher matcher = pattern.matcher(cleanMsgStr);
+        int from = 0;
+        while (from < cleanMsgStr.length() && matcher.find(from)) {
+            int start = matcher.start();
+            int end = matcher.end();
+            if (start == end) {
+                from = start + 1;
+            } else {
+                int rawEnd = view.strippedToRaw(end - 1) + 1;
+                for (int i = view.strippedToRaw(start); i < rawEnd; i++) {
+                    if (owners[i] == -1) owners[i] = owner;
+                }
+                found = true;
+                from = end;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Rebuilds the component, consuming its leaves in the same order as they
+     * were collected.
+     * @return the rebuilt component, or the original if nothing changed.
+     */
+    private static Component rebuild(Component node, Iterator<Leaf> leaves,
+                                     List<Highlight> highlights) {
+        ComponentContents contents = node.getContents();
+        List<Component> parts = null;
+        if (contents instanceof TranslatableContents tc) {
+            Object[] args = tc.getArgs();
+            Object[] newArgs = null;
+            for (int i = 0; i < args.length; i++) {
+                Object arg = args[i];
+                Component newArg;
+                if (arg instanceof Component argComponent) {
+                    newArg = rebuild(argComponent, leaves, highlights);
+                    if (newArg == argComponent) continue;
+                } else if (arg != null) {
+                    Component literal = Component.literal(arg.toString());
+                    newArg = rebuild(literal, leaves, highlights);
+                    if (newArg == literal) continue;
+                } else {
+                    continue;
+                }
+                if (newArgs == null) newArgs = args.clone();
+                newArgs[i] = newArg;
+            }
+            if (newArgs != null) {
+                contents = new TranslatableContents(tc.getKey(), tc.getFallback(), newArgs);
+            }
+        } else {
+            Leaf leaf = leaves.next();
+            if (leaf.marked) {
+                parts = split(leaf, highlights);
+                contents = PlainTextContents.EMPTY;
+            }
+        }
+
+        List<Component> siblings = node.getSiblings();
+        List<Component> newSiblings = null;
+        for (int i = 0; i < siblings.size(); i++) {
+            Component sibling = siblings.get(i);
+            Component newSibling = rebuild(sibling, leaves, highlights);
+            if (newSibling != sibling) {
+                if (newSiblings == null) newSiblings = new ArrayList<>(siblings);
+                newSiblings.set(i, newSibling);
+            }
+        }
+
+        if (contents == node.getContents() && newSiblings == null) return node;
+        MutableComponent copy = MutableComponent.create(contents).setStyle(node.getStyle());
+        // The parts replace the contents, so come before the siblings
+        if (parts != null) copy.getSiblings().addAll(parts);
+        copy.getSiblings().addAll(newSiblings == null ? siblings : newSiblings);
+        return copy;
+    }
+
+    /**
+     * Splits the text of a leaf at the boundaries of its marked characters.
+     * The parts inherit the style of the original component, and the
+     * highlighted parts override the fields of their TextStyle.
+     */
+    private static List<Component> split(Leaf leaf, List<Highlight> highlights) {
+        List<Component> parts = new ArrayList<>();
+        FormatState formats = leaf.text.indexOf('§') == -1 ? null : FormatState.of(leaf.text);
+        int pos = 0;
+        while (pos < leaf.text.length()) {
+            int owner = leaf.owners[pos];
+            int end = pos + 1;
+            while (end < leaf.text.length() && leaf.owners[end] == owner) end++;
+            TextStyle textStyle = owner == -1 ? null : highlights.get(owner).style();
+            parts.add(part(leaf.text, pos, end, formats, textStyle));
+            pos = end;
+        }
+        return parts;
+    }
+
+    /**
+     * @param formats the format state of the text, or {@code null} if the text
+     *                has no format codes.
+     * @param textStyle the TextStyle to apply to the part, or {@code null} if
+     *                  it is not highlighted.
+     */
+    private static Component part(String text, int start, int end,
+                                  @Nullable FormatState formats,
+                                  @Nullable TextStyle textStyle) {
+        String partText = text.substring(start, end);
+        if (formats != null && start != 0) {
+            String activeCodes = formats.codesAt(start);
+            if (textStyle != null) {
+                // Prevent the active codes overriding the applied style
+                if (!activeCodes.isEmpty()) partText = "§r" + partText;
+            } else {
+                partText = activeCodes + partText;
+            }
+        }
+        Style style = textStyle != null
+                ? MessageProcessor.applyStyle(Style.EMPTY, textStyle) : Style.EMPTY;
+        return Component.literal(partText).setStyle(style);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.config.TextStyle;
+import net.minecraft.network.chat.Style;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Bounded cache of the results of applying a {@link TextStyle} to a base
+ * {@link Style}.
+ *
+ * <p>Entries are keyed by the base style and the identity of the TextStyle,
+ * so the cache must be cleared whenever a TextStyle may have been modified,
+ * that is when the config is saved. Equal results are interned, so that
+ * equal styles produced from different keys share an instance.</p>
+ *
+ * <p>Not thread-safe, only for use by the client thread.</p>
+ */
+public final class StyleCache {
+    public static final int MAX_SIZE = 256;
+
+    private record Key(Style base, TextStyle textStyle) {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key other && base.equals(other.base)
+                    && textStyle == other.textStyle;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * base.hashCode() + System.identityHashCode(textStyle);
+        }
+    }
+
+    private final BiFunction<Style, TextStyle, Style> function;
+    private final Map<Key, Style> results = new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Style> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+    private final Map<Style, Style> interned = new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Style, Style> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    /**
+     * @param function the function to cache.
+     */
+    public StyleCache(BiFunction<Style, TextStyle, Style> function) {
+        this.function = function;
+    }
+
+    /**
+     * @return the cached result of applying the TextStyle to the base style,
+     * computing it if required.
+     */
+    public Style apply(Style base, TextStyle textStyle) {
+        Key key = new Key(base, textStyle);
+        Style result = results.get(key);
+        if (result == null) {
+            result = function.apply(base, textStyle);
+            Style existing = interned.putIfAbsent(result, result);
+            if (existing != null) result = existing;
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    public void clear() {
+        results.clear();
+        interned.clear();
+    }
+}
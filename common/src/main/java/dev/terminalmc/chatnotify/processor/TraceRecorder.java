@@ -0,0 +1,187 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import dev.terminalmc.chatnotify.ChatNotify;
+import dev.terminalmc.chatnotify.config.Config;
+import dev.terminalmc.chatnotify.config.Trigger;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.contents.TranslatableContents;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-size ring buffer of {@link Trace}s of the processing of the most
+ * recent messages.
+ *
+ * <p>Traces are only recorded while {@link Config#recordTrace} is enabled.
+ * When it is disabled, no trace is created, and the only cost to processing
+ * is a {@code null} check at each recording point. The buffer is not saved,
+ * but can be written to a JSON lines file in the config directory.</p>
+ *
+ * <p>Not thread-safe, only for use by the client thread. A {@link Trace} is
+ * only written by the thread processing its message, so parallel search is
+ * not used while recording.</p>
+ */
+public final class TraceRecorder {
+    public static final int CAPACITY = 128;
+
+    /**
+     * The evaluation of a single trigger.
+     * @param notif the index of the notification, or -1 for an exclusion
+     *              trigger, which may be shared by several notifications.
+     */
+    record TriggerEval(int notif, String type, String string, boolean hit, long nanos) {}
+
+    /**
+     * The record of the processing of a single message.
+     */
+    public static final class Trace {
+        private final long time = System.currentTimeMillis();
+        private final String raw;
+        private final @Nullable String key;
+        private String ownerCheck = "";
+        private String ownerResult = "";
+        private long ownerNanos = 0;
+        private final List<TriggerEval> triggers = new ArrayList<>();
+        private final List<TriggerEval> exclusions = new ArrayList<>();
+        private String action = "none";
+        private final List<Integer> activated = new ArrayList<>();
+
+        private Trace(Component msg, String raw) {
+            this.raw = raw;
+            this.key = msg.getContents() instanceof TranslatableContents tc ? tc.getKey() : null;
+        }
+
+        /**
+         * @param check the check used, {@code sender} or {@code echo}.
+         * @param result the result, {@code other}, {@code own} or
+         *               {@code ignored}.
+         */
+        void owner(String check, String result, long nanos) {
+            this.ownerCheck = check;
+            this.ownerResult = result;
+            this.ownerNanos = nanos;
+        }
+
+        void trigger(int notif, Trigger trigger, boolean hit, long nanos) {
+            triggers.add(new TriggerEval(notif, MatchStats.type(trigger), trigger.string, hit, nanos));
+        }
+
+        void exclusion(Trigger trigger, boolean hit, long nanos) {
+            exclusions.add(new TriggerEval(-1, MatchStats.type(trigger), trigger.string, hit, nanos));
+        }
+
+        /**
+         * @param action the final action, {@code ignored}, {@code none} or
+         *               {@code notify}.
+         * @param activated the indexes of the activated notifications.
+         */
+        void action(String action, List<Integer> activated) {
+            this.action = action;
+            this.activated.addAll(activated);
+        }
+
+        private JsonObject toJson() {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("time", Instant.ofEpochMilli(time).toString());
+            obj.addProperty("raw", raw);
+            obj.addProperty("key", key);
+            JsonObject owner = new JsonObject();
+            owner.addProperty("check", ownerCheck);
+            owner.addProperty("result", ownerResult);
+            owner.addProperty("ns", ownerNanos);
+            obj.add("owner", owner);
+            obj.add("triggers", toJson(triggers));
+            obj.add("exclusions", toJson(exclusions));
+            obj.addProperty("action", action);
+            JsonArray notifs = new JsonArray();
+            activated.forEach(notifs::add);
+            obj.add("notifications", notifs);
+            return obj;
+        }
+
+        private static JsonArray toJson(List<TriggerEval> evals) {
+            JsonArray array = new JsonArray();
+            for (TriggerEval eval : evals) {
+                JsonObject obj = new JsonObject();
+                if (eval.notif() != -1) obj.addProperty("notif", eval.notif());
+                obj.addProperty("type", eval.type());
+                obj.addProperty("string", eval.string());
+                obj.addProperty("hit", eval.hit());
+                obj.addProperty("ns", eval.nanos());
+                array.add(obj);
+            }
+            return array;
+        }
+    }
+
+    private final Trace[] traces = new Trace[CAPACITY];
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * Starts the trace of a message, discarding the oldest trace if the
+     * buffer is full.
+     * @param msg the message.
+     * @param raw the raw string of the message.
+     * @return the trace, to be completed during processing.
+     */
+    Trace start(Component msg, String raw) {
+        Trace trace = new Trace(msg, raw);
+        if (size == CAPACITY) {
+            traces[head] = trace;
+            head = (head + 1) % CAPACITY;
+        } else {
+            traces[(head + size++) % CAPACITY] = trace;
+        }
+        return trace;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(traces, null);
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Writes all recorded traces, oldest first, to a new JSON lines file in
+     * the config directory.
+     * @return the path of the file.
+     */
+    public Path dumpJsonLines() throws IOException {
+        Path dir = Config.DIR_PATH.resolve(ChatNotify.MOD_ID + "-trace");
+        if (!Files.isDirectory(dir)) Files.createDirectories(dir);
+        Path file = dir.resolve(LocalDateTime.now().format(
+                DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss")) + ".jsonl");
+
+        Gson gson = new Gson();
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < size; i++) {
+                writer.write(gson.toJson(traces[(head + i) % CAPACITY].toJson()));
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.processor;
+
+import dev.terminalmc.chatnotify.config.Trigger;
+import dev.terminalmc.chatnotify.processor.CompiledConfig.CompiledTrigger;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled form of the profile name and display name triggers of the username
+ * notification.
+ *
+ * <p>The name triggers are updated automatically from packets, without the
+ * config being saved, so they are excluded from the {@link CompiledConfig}
+ * and compiled separately. A name change only requires this matcher to be
+ * rebuilt, and it is only rebuilt if the names actually changed.</p>
+ *
+ * <p>Instances are immutable and may be shared between threads.</p>
+ */
+public final class UsernameMatcher {
+    /**
+     * The number of name triggers at the start of the username notification.
+     */
+    public static final int NAME_TRIGGERS = 2;
+
+    private final CompiledConfig rules;
+    private final List<String> names;
+    private final PlainTriggerMatcher nameMatcher;
+    /**
+     * All triggers of the username notification in order, with the name
+     * triggers indexed by {@link CompiledTrigger#nameIndex}.
+     */
+    public final List<CompiledTrigger> userTriggers;
+    /**
+     * Search patterns for all triggers of the username notification, used by
+     * the message owner check on the message string without format codes.
+     */
+    public final List<Pattern> userPatterns;
+
+    private UsernameMatcher(CompiledConfig rules) {
+        this.rules = rules;
+        List<Trigger> triggers = rules.config.getUserNotif().triggers;
+
+        List<String> names = new ArrayList<>();
+        List<String> nameStrings = new ArrayList<>();
+        List<CompiledTrigger> userTriggers = new ArrayList<>();
+        for (int i = 0; i < NAME_TRIGGERS; i++) {
+            Trigger trigger = triggers.get(i);
+            names.add(trigger.string);
+            if (!trigger.string.isBlank() && !trigger.isKey) { // Guard
+                userTriggers.add(CompiledTrigger.ofName(trigger, nameStrings.size()));
+                nameStrings.add(trigger.string);
+            }
+        }
+        userTriggers.addAll(rules.notifs.getFirst().triggers);
+        this.names = List.copyOf(names);
+        this.nameMatcher = new PlainTriggerMatcher(nameStrings);
+        this.userTriggers = List.copyOf(userTriggers);
+
+        List<Pattern> userPatterns = new ArrayList<>();
+        for (Trigger trigger : triggers) {
+            if (!trigger.string.isBlank()) {
+                userPatterns.add(MessageProcessor.triggerPattern(trigger.string));
+            }
+        }
+        this.userPatterns = List.copyOf(userPatterns);
+    }
+
+    /**
+     * Compiles the username triggers of the config of the specified rules.
+     */
+    public static UsernameMatcher of(CompiledConfig rules) {
+        return new UsernameMatcher(rules);
+    }
+
+    /**
+     * @return {@code true} if the matcher was compiled for the specified
+     * rules, and the name triggers are unchanged.
+     */
+    public boolean isCurrent(CompiledConfig rules) {
+        if (this.rules != rules) return false;
+        List<Trigger> triggers = rules.config.getUserNotif().triggers;
+        for (int i = 0; i < NAME_TRIGGERS; i++) {
+            if (!triggers.get(i).string.equals(names.get(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param msgStr the owner-checked message string, without format codes.
+     * @return the name triggers found in the message, by
+     * {@link CompiledTrigger#nameIndex}.
+     */
+    public BitSet search(String msgStr) {
+        return nameMatcher.search(msgStr);
+    }
+}
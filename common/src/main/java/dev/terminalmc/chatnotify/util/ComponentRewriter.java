@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.util;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.ComponentContents;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+import net.minecraft.network.chat.contents.TranslatableContents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Copy-on-write rewriting of {@link Component} trees.
+ *
+ * <p>The original instance of any node whose style and descendants are
+ * unchanged is returned, so only the nodes on the path to a modified node
+ * are copied. The original tree is never modified.</p>
+ */
+public final class ComponentRewriter {
+    private ComponentRewriter() {
+    }
+
+    /**
+     * Applies the specified function to the style of every node of the
+     * component, including the arguments of translatable contents.
+     * @param msg the component to rewrite.
+     * @param function the function to apply to each style.
+     * @return the rewritten component, or the original if no style changed.
+     */
+    public static Component restyleAll(Component msg, UnaryOperator<Style> function) {
+        Style style = function.apply(msg.getStyle());
+
+        ComponentContents contents = msg.getContents();
+        if (contents instanceof TranslatableContents tc) {
+            Object[] args = tc.getArgs();
+            Object[] newArgs = null;
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof Component arg) {
+                    Component newArg = restyleAll(arg, function);
+                    if (newArg != arg) {
+                        if (newArgs == null) newArgs = args.clone();
+                        newArgs[i] = newArg;
+                    }
+                }
+            }
+            if (newArgs != null) {
+                contents = new TranslatableContents(tc.getKey(), tc.getFallback(), newArgs);
+            }
+        }
+
+        List<Component> siblings = msg.getSiblings();
+        List<Component> newSiblings = null;
+        for (int i = 0; i < siblings.size(); i++) {
+            Component sibling = siblings.get(i);
+            Component newSibling = restyleAll(sibling, function);
+            if (newSibling != sibling) {
+                if (newSiblings == null) newSiblings = new ArrayList<>(siblings);
+                newSiblings.set(i, newSibling);
+            }
+        }
+
+        if (contents == msg.getContents() && newSiblings == null
+                && style.equals(msg.getStyle())) {
+            return msg;
+        }
+        MutableComponent copy = MutableComponent.create(contents).setStyle(style);
+        copy.getSiblings().addAll(newSiblings == null ? siblings : newSiblings);
+        return copy;
+    }
+}
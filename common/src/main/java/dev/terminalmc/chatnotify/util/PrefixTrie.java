@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Trie of message prefixes, for finding the longest prefix of a string in a
+ * single walk.
+ *
+ * <p>Prefixes are converted to lowercase, as the strings checked against them
+ * are. Blank prefixes are ignored.</p>
+ *
+ * <p>Instances are immutable and may be shared between threads.</p>
+ */
+public final class PrefixTrie {
+    private final Node root = new Node();
+
+    private static final class Node {
+        // Sorted for binary search
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        boolean terminal;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? null : children[i];
+        }
+
+        Node getOrAddChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) return children[i];
+            i = -i - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newKeys[i] = c;
+            newChildren[i] = child;
+            System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+
+    public PrefixTrie(List<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (prefix.isBlank()) continue;
+            prefix = prefix.toLowerCase(Locale.ROOT);
+            Node node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.getOrAddChild(prefix.charAt(i));
+            }
+            node.terminal = true;
+        }
+    }
+
+    /**
+     * @param str the lowercase string to check.
+     * @return the length of the longest prefix that the string starts with,
+     * or 0 if it does not start with any prefix.
+     */
+    public int longestPrefix(String str) {
+        int longest = 0;
+        Node node = root;
+        for (int i = 0; i < str.length(); i++) {
+            node = node.child(str.charAt(i));
+            if (node == null) break;
+            if (node.terminal) longest = i + 1;
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.util;
+
+/**
+ * Time-ordered ring buffer of recently sent message and command strings.
+ *
+ * <p>Each entry expires a fixed time after it was added, measured using
+ * {@link System#nanoTime}. As entries are added in time order, expired
+ * entries are always at the head of the buffer, so expiry is O(1) amortized.
+ * The buffer has a fixed capacity, and the oldest entry is discarded when a
+ * new entry is added to a full buffer.</p>
+ *
+ * <p>Not thread-safe, only for use by the client thread.</p>
+ */
+public class SentMessageBuffer {
+    private final long ttlNanos;
+    private final long[] expiries;
+    private final String[] messages;
+    private int head = 0;
+    private int size = 0;
+    private int modCount = 0;
+
+    /**
+     * @param capacity the maximum number of entries.
+     * @param ttlNanos the time after which an entry expires.
+     */
+    public SentMessageBuffer(int capacity, long ttlNanos) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
+        this.ttlNanos = ttlNanos;
+        this.expiries = new long[capacity];
+        this.messages = new String[capacity];
+    }
+
+    /**
+     * Removes expired entries, then adds the specified message.
+     */
+    public void add(String message) {
+        long now = System.nanoTime();
+        expire(now);
+        if (size == messages.length) removeFirst();
+        int tail = index(size);
+        expiries[tail] = now + ttlNanos;
+        messages[tail] = message;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Removes all expired entries.
+     */
+    public void expire() {
+        expire(System.nanoTime());
+    }
+
+    private void expire(long now) {
+        // Subtraction, as nanoTime values may overflow
+        while (size > 0 && expiries[head] - now < 0) {
+            removeFirst();
+        }
+    }
+
+    private void removeFirst() {
+        messages[head] = null;
+        head = index(1);
+        size--;
+        modCount++;
+    }
+
+    /**
+     * @return the number of entries, which may include expired entries if
+     * {@link #expire()} has not been called.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return a counter that changes whenever an entry is added or removed,
+     * for invalidating data derived from the entries.
+     */
+    public int modCount() {
+        return modCount;
+    }
+
+    /**
+     * @param i the position of the entry, where 0 is the oldest.
+     * @return the message of the entry.
+     */
+    public String get(int i) {
+        checkIndex(i);
+        return messages[index(i)];
+    }
+
+    /**
+     * Removes the entry at the specified position, where 0 is the oldest.
+     */
+    public void remove(int i) {
+        checkIndex(i);
+        // Shift later entries back to preserve order
+        for (int j = i; j < size - 1; j++) {
+            int to = index(j);
+            int from = index(j + 1);
+            expiries[to] = expiries[from];
+            messages[to] = messages[from];
+        }
+        messages[index(size - 1)] = null;
+        size--;
+        modCount++;
+    }
+
+    public void clear() {
+        while (size > 0) removeFirst();
+        head = 0;
+    }
+
+    private int index(int i) {
+        return (head + i) % messages.length;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel of jobs that are due a number of ticks in the future.
+ *
+ * <p>Each job is placed in the slot of its due tick, modulo the number of
+ * slots, so scheduling is O(1). Each tick only visits the jobs in the current
+ * slot, which are the jobs due on that tick and any jobs due a whole number of
+ * rotations later. Jobs due on the same tick are returned in the order they
+ * were scheduled.</p>
+ *
+ * <p>Jobs should be immutable, as they are held until due.</p>
+ *
+ * <p>Not thread-safe, only for use by the client thread.</p>
+ */
+public class TickScheduler<T> {
+    private record Entry<T>(long dueTick, T job) {}
+
+    private final List<List<Entry<T>>> slots;
+    private final int mask;
+    private long tick = 0;
+    private int size = 0;
+
+    /**
+     * @param slots the number of slots, which must be a power of two. Delays
+     *              shorter than this never share a slot with a later job.
+     */
+    public TickScheduler(int slots) {
+        if (slots <= 0 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Slots must be a power of two");
+        }
+        this.slots = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) this.slots.add(new ArrayList<>());
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Schedules a job to be returned by {@link #advance} after the specified
+     * number of ticks. A delay of 0 is treated as 1, as the current tick has
+     * already been advanced.
+     */
+    public void schedule(T job, int delayTicks) {
+        long dueTick = tick + Math.max(delayTicks, 1);
+        slots.get((int)(dueTick & mask)).add(new Entry<>(dueTick, job));
+        size++;
+    }
+
+    /**
+     * Advances to the next tick.
+     * @return the jobs due on the tick, in the order they were scheduled.
+     */
+    public List<T> advance() {
+        tick++;
+        List<Entry<T>> slot = slots.get((int)(tick & mask));
+        if (slot.isEmpty()) return List.of();
+
+        List<T> due = new ArrayList<>();
+        int kept = 0;
+        for (int i = 0; i < slot.size(); i++) {
+            Entry<T> entry = slot.get(i);
+            if (entry.dueTick() <= tick) {
+                due.add(entry.job());
+            } else {
+                slot.set(kept++, entry);
+            }
+        }
+        slot.subList(kept, slot.size()).clear();
+        size -= due.size();
+        return due;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        slots.forEach(List::clear);
+        size = 0;
+    }
+}
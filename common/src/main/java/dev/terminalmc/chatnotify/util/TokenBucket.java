@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023, 2024 NotRyken
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package dev.terminalmc.chatnotify.util;
+
+/**
+ * Tick-based token bucket rate limiter.
+ *
+ * <p>The bucket starts full, and one token is added every fixed number of
+ * ticks, up to its capacity. Refill is computed lazily from the current tick
+ * when the bucket is queried, so an idle bucket has no per-tick cost.</p>
+ *
+ * <p>Not thread-safe, only for use by the client thread.</p>
+ */
+public class TokenBucket {
+    private final int capacity;
+    private final int refillTicks;
+    private int tokens;
+    private long lastRefill;
+
+    /**
+     * @param capacity the maximum number of tokens.
+     * @param refillTicks the number of ticks to add one token.
+     * @param tick the current tick.
+     */
+    public TokenBucket(int capacity, int refillTicks, long tick) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
+        if (refillTicks <= 0) throw new IllegalArgumentException("Refill ticks must be positive");
+        this.capacity = capacity;
+        this.refillTicks = refillTicks;
+        this.tokens = capacity;
+        this.lastRefill = tick;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int refillTicks() {
+        return refillTicks;
+    }
+
+    /**
+     * @param tick the current tick.
+     * @return {@code true} if a token is available at the tick.
+     */
+    public boolean hasToken(long tick) {
+        long refills = (tick - lastRefill) / refillTicks;
+        if (refills > 0) {
+            tokens = (int)Math.min(capacity, tokens + refills);
+            lastRefill = tokens == capacity ? tick : lastRefill + refills * refillTicks;
+        }
+        return tokens > 0;
+    }
+
+    /**
+     * Takes a token. Must only be called if {@link #hasToken} has returned
+     * {@code true} for the current tick.
+     */
+    public void take() {
+        tokens--;
+    }
+}